@@ -2,11 +2,19 @@ package com.skillevaluator;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 @SpringBootApplication
+@EnableAsync
+@EnableScheduling
 public class SkillEvaluatorApplication {
 
     public static void main(String[] args) {
@@ -14,7 +22,12 @@ public class SkillEvaluatorApplication {
     }
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+            @Value("${gemini.api.timeout-seconds:60}") long timeoutSeconds) {
+        // Bound blocking AI calls so stuck requests cannot pile up, even on virtual threads
+        return builder
+                .setConnectTimeout(Duration.ofSeconds(10))
+                .setReadTimeout(Duration.ofSeconds(timeoutSeconds))
+                .build();
     }
 }
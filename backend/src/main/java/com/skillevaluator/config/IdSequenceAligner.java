@@ -0,0 +1,61 @@
+package com.skillevaluator.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the pooled id sequences ahead of the ids already in their tables.
+ * Needed once for tables that were filled through identity columns before
+ * the switch to sequences, and after bulk loads that assign ids themselves.
+ *
+ * Hibernate hands out the block ending at each value it fetches, so a
+ * sequence is only behind when its next block would start at or below the
+ * table's highest id.
+ */
+@Component
+public class IdSequenceAligner {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceAligner.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Also makes sure the schema (and the sequences) exist before aligning
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void align() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            if (!(persister.getGenerator() instanceof SequenceStyleGenerator generator)
+                    || !(persister instanceof AbstractEntityPersister entity)) {
+                return;
+            }
+            DatabaseStructure structure = generator.getDatabaseStructure();
+            String sequence = structure.getPhysicalName().render();
+            String table = entity.getTableName();
+
+            long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            long next = jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(sequence),
+                    Long.class);
+            // Fetching a value used it up; the next block Hibernate takes starts right after it
+            if (next < maxId) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH "
+                        + (maxId + structure.getIncrementSize()));
+                log.info("Moved {} past the highest id in {} ({})", sequence, table, maxId);
+            }
+        });
+    }
+}
@@ -5,7 +5,10 @@ import com.skillevaluator.model.Role;
 import com.skillevaluator.model.User;
 import com.skillevaluator.repository.UserRepository;
 import com.skillevaluator.repository.SystemSettingRepository;
+import com.skillevaluator.security.UserPrincipalCache;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -24,6 +27,8 @@ import java.util.Optional;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminController {
 
+    private static final Logger log = LoggerFactory.getLogger(AdminController.class);
+
     @Autowired
     private UserRepository userRepository;
 
@@ -42,6 +47,15 @@ public class AdminController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private com.skillevaluator.service.SkillScoreService skillScoreService;
+
+    @Autowired
+    private com.skillevaluator.service.ItemCalibrationService itemCalibrationService;
+
     @GetMapping("/users")
     public ResponseEntity<List<User>> getAllUsers() {
         List<User> users = userRepository.findAll();
@@ -61,8 +75,7 @@ public class AdminController {
 
     @PostMapping("/users")
     public ResponseEntity<?> createUser(@Valid @RequestBody RegisterRequest registerRequest) {
-        System.out.println("ADMIN: Attempting to create user: " + registerRequest.getUsername() + ", Role="
-                + registerRequest.getRole());
+        log.info("Attempting to create user: {}, role={}", registerRequest.getUsername(), registerRequest.getRole());
         if (userRepository.existsByUsername(registerRequest.getUsername())) {
             return ResponseEntity.badRequest().body(Map.of("error", "Username is already taken!"));
         }
@@ -82,14 +95,14 @@ public class AdminController {
         user.setCredentialsNonExpired(true);
 
         userRepository.save(user);
-        System.out.println("ADMIN: User created successfully: " + user.getId());
+        log.info("User created successfully: {}", user.getId());
         user.setPassword(null);
         return ResponseEntity.ok(Map.of("message", "User created successfully!", "user", user));
     }
 
     @PutMapping("/users/{id}")
     public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody Map<String, Object> updates) {
-        System.out.println("ADMIN: Attempting to update user ID: " + id);
+        log.info("Attempting to update user ID: {}", id);
         Optional<User> userOpt = userRepository.findById(id);
         if (userOpt.isEmpty())
             return ResponseEntity.notFound().build();
@@ -111,13 +124,14 @@ public class AdminController {
         }
 
         userRepository.save(user);
+        userPrincipalCache.evict(user.getUsername());
         user.setPassword(null);
         return ResponseEntity.ok(Map.of("message", "User updated successfully!", "user", user));
     }
 
     @DeleteMapping("/users/{id}")
     public ResponseEntity<?> deleteUser(@PathVariable Long id, Authentication authentication) {
-        System.out.println("ADMIN: Attempting to delete user ID: " + id);
+        log.info("Attempting to delete user ID: {}", id);
         String username = authentication.getName();
         User currentUser = userRepository.findByUsername(username).orElse(null);
 
@@ -125,18 +139,19 @@ public class AdminController {
             return ResponseEntity.badRequest().body(Map.of("error", "You cannot delete your own account!"));
         }
 
-        if (!userRepository.existsById(id)) {
+        Optional<User> userOpt = userRepository.findById(id);
+        if (userOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
         userRepository.deleteById(id);
-        System.out.println("ADMIN: User deleted successfully: " + id);
+        userPrincipalCache.evict(userOpt.get().getUsername());
+        log.info("User deleted successfully: {}", id);
         return ResponseEntity.ok(Map.of("message", "User deleted successfully!"));
     }
 
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Long>> getStats() {
-        System.out.println("ADMIN: Fetching global statistics...");
         Map<String, Long> stats = new HashMap<>();
         stats.put("totalUsers", userRepository.count());
         stats.put("admins", userRepository.countByRole(Role.ADMIN));
@@ -145,7 +160,6 @@ public class AdminController {
         stats.put("totalTests", testRepository.count());
         stats.put("totalQuestions", questionRepository.count());
         stats.put("totalSessions", testSessionRepository.count());
-        System.out.println("ADMIN: Stats summary - Total Users: " + stats.get("totalUsers"));
         return ResponseEntity.ok(stats);
     }
 
@@ -184,6 +198,23 @@ public class AdminController {
         return ResponseEntity.ok(Map.of("message", "Database backup completed. Size: 42MB"));
     }
 
+    // Fills session_skill_scores for sessions completed before it existed; safe to rerun
+    @PostMapping("/tasks/backfill-skill-scores")
+    public ResponseEntity<?> backfillSkillScores() {
+        com.skillevaluator.service.SkillScoreService.BackfillResult result = skillScoreService.backfill();
+        log.info("Backfilled {} skill scores for {} sessions", result.rows(), result.sessions());
+        return ResponseEntity.ok(Map.of("sessions", result.sessions(), "rows", result.rows()));
+    }
+
+    // Re-estimates the adaptive item parameters from all completed sessions; safe to rerun
+    @PostMapping("/tasks/calibrate-items")
+    public ResponseEntity<?> calibrateItems() {
+        com.skillevaluator.service.ItemCalibrationService.CalibrationResult result = itemCalibrationService
+                .calibrate();
+        return ResponseEntity.ok(Map.of("sessions", result.sessions(), "responses", result.responses(),
+                "items", result.items()));
+    }
+
     @PostMapping("/tasks/broadcast")
     public ResponseEntity<?> runBroadcast(@RequestBody Map<String, String> payload) {
         return ResponseEntity.ok(Map.of("message", "Broadcast sent: " + payload.get("message")));
@@ -1,19 +1,31 @@
 package com.skillevaluator.controller;
 
-import com.skillevaluator.dto.TestSessionResponse;
+import com.skillevaluator.dto.AdaptiveAnswerRequest;
+import com.skillevaluator.dto.AnswerDeltaRequest;
+import com.skillevaluator.dto.SessionSearchCriteria;
 import com.skillevaluator.dto.TestSubmissionRequest;
 import com.skillevaluator.model.*;
 import com.skillevaluator.repository.TestSessionRepository;
+import com.skillevaluator.service.AdaptiveTestEngine;
+import com.skillevaluator.service.AnswerAutosaveService;
+import com.skillevaluator.service.ExamSnapshot;
+import com.skillevaluator.service.ExamSnapshotCache;
+import com.skillevaluator.service.SubmissionQueueService;
 import com.skillevaluator.service.TestService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 @RestController
@@ -27,6 +39,18 @@ public class CandidateController {
     @Autowired
     private TestSessionRepository testSessionRepository;
 
+    @Autowired
+    private ExamSnapshotCache examSnapshotCache;
+
+    @Autowired
+    private AnswerAutosaveService answerAutosaveService;
+
+    @Autowired
+    private SubmissionQueueService submissionQueueService;
+
+    @Autowired
+    private AdaptiveTestEngine adaptiveTestEngine;
+
     @GetMapping("/tests")
     public ResponseEntity<List<Test>> getAvailableTests() {
         List<Test> tests = testService.getAvailableTests();
@@ -36,45 +60,78 @@ public class CandidateController {
     }
 
     @PostMapping("/tests/{testId}/start")
-    public ResponseEntity<TestSessionResponse> startTest(
-            @PathVariable Long testId,
+    public ResponseEntity<?> startTest(
+            @PathVariable @org.springframework.lang.NonNull Long testId,
             Authentication authentication) {
 
-        String username = authentication.getName();
-        TestSession session = testService.startTestSession(testId, username);
-        List<Question> questions = testService.getRandomizedQuestions(testId);
-
-        // Remove correct answers from questions before sending to client
-        questions.forEach(q -> {
-            q.setCorrectAnswer(null);
-            q.setExplanation(null);
-        });
+        User candidate = (User) authentication.getPrincipal();
+        ExamSnapshot snapshot = examSnapshotCache.get(testId);
+        TestSession session = testService.startTestSession(snapshot, candidate);
 
         // Calculate time remaining in seconds
         long secondsRemaining = Duration.between(
                 LocalDateTime.now(),
                 session.getExpiresAt()).getSeconds();
 
-        TestSessionResponse response = new TestSessionResponse(
-                session.getTest(),
-                questions,
-                session.getId(),
-                (int) Math.max(0, secondsRemaining));
+        if (snapshot.isAdaptive()) {
+            // One question at a time; the rest follow through /adaptive/answer
+            AdaptiveTestEngine.Step step;
+            try {
+                step = adaptiveTestEngine.resume(snapshot, session, candidate.getId());
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "5")
+                        .body(Map.of("error", e.getMessage()));
+            }
+            if (step.status() != AdaptiveTestEngine.Status.NEXT) {
+                return adaptiveError(step.status());
+            }
+            Map<String, Object> body = new LinkedHashMap<>(step.body());
+            body.put("timeRemaining", Math.max(0, secondsRemaining));
+            body.put("adaptive", true);
+            return ResponseEntity.ok(body);
+        }
 
-        return ResponseEntity.ok(response);
+        // The snapshot is already serialized without answers; only the per-candidate parts are added
+        byte[] body = snapshot.render(session.getId(), (int) Math.max(0, secondsRemaining), snapshot.shuffledOrder());
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @PostMapping("/tests/{testId}/submit")
     public ResponseEntity<?> submitTest(
             @PathVariable Long testId,
             @RequestBody TestSubmissionRequest submissionRequest,
+            @RequestParam(defaultValue = "false") boolean async,
             Authentication authentication) {
 
         String username = authentication.getName();
+        boolean autoSubmit = submissionRequest.getAutoSubmit() != null && submissionRequest.getAutoSubmit();
+        // Same per-answer limit as autosave; a longer answer could not be stored
+        if (submissionRequest.getAnswers() != null && submissionRequest.getAnswers().values().stream()
+                .anyMatch(answer -> answer != null && answer.length() > TextAnswer.MAX_LENGTH)) {
+            return ResponseEntity.status(413)
+                    .body(Map.of("error", "Answers are limited to " + TextAnswer.MAX_LENGTH + " characters each"));
+        }
+
+        if (async) {
+            try {
+                Submission submission = submissionQueueService.enqueue(testId,
+                        (com.skillevaluator.model.User) authentication.getPrincipal(),
+                        submissionRequest.getAnswers(), autoSubmit);
+                return ResponseEntity.accepted().body(submissionStatus(submission));
+            } catch (NoSuchElementException e) {
+                return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+            }
+        }
 
         // Find the active session for this test and user
         com.skillevaluator.model.User candidate = (com.skillevaluator.model.User) authentication.getPrincipal();
         Test test = testService.getTestById(testId);
+        if (Boolean.TRUE.equals(test.getAdaptive())) {
+            return ResponseEntity.status(409)
+                    .body(Map.of("error", "Answer adaptive sessions one question at a time"));
+        }
 
         TestSession session = testSessionRepository
                 .findByTestAndCandidateAndIsCompletedFalse(test, candidate)
@@ -85,7 +142,7 @@ public class CandidateController {
                 session.getId(),
                 submissionRequest.getAnswers(),
                 username,
-                submissionRequest.getAutoSubmit() != null && submissionRequest.getAutoSubmit());
+                autoSubmit);
 
         return ResponseEntity.ok(Map.of(
                 "message", "Test submitted successfully",
@@ -93,11 +150,130 @@ public class CandidateController {
                 "totalPoints", completedSession.getTotalPoints()));
     }
 
+    // Answers the question on screen of an adaptive session; the response is the next question or the result
+    @PostMapping("/sessions/{sessionId}/adaptive/answer")
+    public ResponseEntity<?> answerAdaptive(
+            @PathVariable Long sessionId,
+            @RequestBody AdaptiveAnswerRequest answerRequest,
+            Authentication authentication) {
+
+        if (answerRequest.getQuestionId() == null || answerRequest.getAnswer() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "questionId and answer are required"));
+        }
+        User candidate = (User) authentication.getPrincipal();
+        AdaptiveTestEngine.Step step;
+        try {
+            step = adaptiveTestEngine.answer(sessionId, candidate.getId(), answerRequest.getQuestionId(),
+                    answerRequest.getAnswer());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Map.of("error", e.getMessage()));
+        }
+        return switch (step.status()) {
+            case NEXT, DONE -> ResponseEntity.ok(step.body());
+            default -> adaptiveError(step.status());
+        };
+    }
+
+    private ResponseEntity<?> adaptiveError(AdaptiveTestEngine.Status status) {
+        return switch (status) {
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case FORBIDDEN -> ResponseEntity.status(403).body(Map.of("error", "Access denied"));
+            case NOT_ADAPTIVE -> ResponseEntity.status(409).body(Map.of("error", "Not an adaptive test session"));
+            case CONFLICT -> ResponseEntity.status(409)
+                    .body(Map.of("error", "That question is not the one awaiting an answer"));
+            case BUSY -> ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "Autosave is at capacity"));
+            case TOO_LARGE -> ResponseEntity.status(413).body(Map.of("error", "Answers exceed the autosave size limit"));
+            default -> ResponseEntity.status(409).body(Map.of("error", "Test session is no longer in progress"));
+        };
+    }
+
+    @GetMapping("/submissions/{ticket}")
+    public ResponseEntity<?> getSubmission(@PathVariable Long ticket, Authentication authentication) {
+        User candidate = (User) authentication.getPrincipal();
+        Optional<Submission> submission = submissionQueueService.findTicket(ticket);
+
+        if (submission.isEmpty() || !submission.get().getCandidateId().equals(candidate.getId())) {
+            return ResponseEntity.status(403).body(Map.of("error", "Access denied"));
+        }
+
+        return ResponseEntity.ok(submissionStatus(submission.get()));
+    }
+
+    private Map<String, Object> submissionStatus(Submission submission) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("ticket", submission.getId());
+        status.put("sessionId", submission.getSessionId());
+        status.put("status", submission.getStatus());
+        if ("DONE".equals(submission.getStatus())) {
+            status.put("score", submission.getScore());
+            status.put("totalPoints", submission.getTotalPoints());
+        } else if ("FAILED".equals(submission.getStatus())) {
+            status.put("error", submission.getError());
+        }
+        return status;
+    }
+
+    @PutMapping("/sessions/{sessionId}/answers")
+    public ResponseEntity<?> saveAnswers(
+            @PathVariable Long sessionId,
+            @RequestBody AnswerDeltaRequest deltaRequest,
+            Authentication authentication) {
+
+        User candidate = (User) authentication.getPrincipal();
+        AnswerAutosaveService.SaveResult result = answerAutosaveService.save(
+                sessionId, candidate.getId(), deltaRequest.getAnswers());
+
+        return switch (result.status()) {
+            case SAVED -> ResponseEntity.ok(Map.of("version", result.version()));
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case FORBIDDEN -> ResponseEntity.status(403).body(Map.of("error", "Access denied"));
+            case CLOSED -> ResponseEntity.status(409).body(Map.of("error", "Test session is no longer in progress"));
+            // Adaptive answers go through the engine, which decides what is asked next
+            case ADAPTIVE -> ResponseEntity.status(409)
+                    .body(Map.of("error", "Answer adaptive sessions one question at a time"));
+            case UNKNOWN_QUESTION -> ResponseEntity.badRequest()
+                    .body(Map.of("error", "Answers must be to questions of this test"));
+            case TOO_LARGE -> ResponseEntity.status(413).body(Map.of("error", "Answers exceed the autosave size limit"));
+            case BUSY -> ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "Autosave is at capacity"));
+        };
+    }
+
+    @GetMapping("/sessions/{sessionId}/answers")
+    public ResponseEntity<?> getSavedAnswers(@PathVariable Long sessionId, Authentication authentication) {
+        User candidate = (User) authentication.getPrincipal();
+        Optional<TestSession> sessionOpt = testSessionRepository.findById(java.util.Objects.requireNonNull(sessionId));
+
+        if (sessionOpt.isEmpty() || !sessionOpt.get().getCandidate().getId().equals(candidate.getId())) {
+            return ResponseEntity.status(403).body(Map.of("error", "Access denied"));
+        }
+
+        TestSession session = sessionOpt.get();
+        return ResponseEntity.ok(Map.of(
+                "sessionId", session.getId(),
+                "answers", testService.getSubmittedAnswers(session)));
+    }
+
+    // Keyset pages, newest first; pass nextCursor back as cursor. completed=true sorts by submission time
     @GetMapping("/sessions")
-    public ResponseEntity<List<TestSession>> getMySessions(Authentication authentication) {
-        String username = authentication.getName();
-        List<TestSession> sessions = testService.getCandidateSessions(username);
-        return ResponseEntity.ok(sessions);
+    public ResponseEntity<?> getMySessions(
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+        User candidate = (User) authentication.getPrincipal();
+        SessionSearchCriteria criteria = new SessionSearchCriteria();
+        criteria.setCandidateId(candidate.getId());
+        criteria.setCompleted(completed);
+        criteria.setCursor(cursor);
+        criteria.setSize(size);
+        try {
+            return ResponseEntity.ok(testSessionRepository.search(criteria));
+        } catch (IllegalArgumentException | InvalidDataAccessApiUsageException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/sessions/{sessionId}/result")
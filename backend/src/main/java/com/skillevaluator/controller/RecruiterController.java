@@ -1,22 +1,53 @@
 package com.skillevaluator.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.skillevaluator.dto.QuestionSearchCriteria;
+import com.skillevaluator.dto.SessionPage;
+import com.skillevaluator.dto.SessionSearchCriteria;
+import com.skillevaluator.dto.SkillBucket;
+import com.skillevaluator.dto.SkillScoreFilter;
+import com.skillevaluator.dto.SkillSummary;
+import com.skillevaluator.dto.SkillTopScore;
 import com.skillevaluator.model.*;
 import com.skillevaluator.repository.*;
 import com.skillevaluator.security.JwtTokenProvider;
+import com.skillevaluator.service.AdaptiveTestEngine;
+import com.skillevaluator.service.QuestionDuplicateIndex;
+import com.skillevaluator.service.QuestionImportService;
+import com.skillevaluator.service.QuestionSampler;
+import com.skillevaluator.service.QuestionSearchIndex;
+import com.skillevaluator.service.QuestionsChangedEvent;
+import com.skillevaluator.service.ResultExportService;
+import com.skillevaluator.service.TestService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.skillevaluator.model.User;
 import com.skillevaluator.model.Role;
 import com.skillevaluator.model.Test;
 import com.skillevaluator.model.Question;
 import com.skillevaluator.model.TestSession;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/recruiter")
@@ -24,6 +55,8 @@ import java.util.Optional;
 @PreAuthorize("hasAnyRole('RECRUITER', 'ADMIN')")
 public class RecruiterController {
 
+    private static final Logger log = LoggerFactory.getLogger(RecruiterController.class);
+
     @Autowired
     private JwtTokenProvider tokenProvider; // Injected JwtTokenProvider
 
@@ -42,6 +75,42 @@ public class RecruiterController {
     @Autowired
     private com.skillevaluator.service.AiService aiService;
 
+    @Autowired
+    private com.skillevaluator.service.ExamSnapshotCache examSnapshotCache;
+
+    @Autowired
+    private com.skillevaluator.service.AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private com.skillevaluator.service.LeaderboardService leaderboardService;
+
+    @Autowired
+    private ResultExportService resultExportService;
+
+    @Autowired
+    private SkillScoreRepository skillScoreRepository;
+
+    @Autowired
+    private TestService testService;
+
+    @Autowired
+    private QuestionImportService questionImportService;
+
+    @Autowired
+    private QuestionSearchIndex questionSearchIndex;
+
+    @Autowired
+    private QuestionSampler questionSampler;
+
+    @Autowired
+    private QuestionDuplicateIndex questionDuplicateIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // ========== AI GENERATION ==========
 
     @PostMapping("/generate-ai-test")
@@ -65,15 +134,29 @@ public class RecruiterController {
         test.setCreatedAt(java.time.LocalDateTime.now());
 
         // 3. Save questions and link to test
-        questionRepository.saveAll(generatedQuestions);
-        test.getQuestions().addAll(generatedQuestions);
         test.setTotalPoints(generatedQuestions.stream().mapToInt(Question::getPoints).sum());
-
-        final Test savedTest = testRepository.save(test);
+        final Test savedTest = testService.createTestWithQuestions(test, generatedQuestions);
+        // The batch is indexed by now: each question is matched against the bank and the ones before it
+        Set<Long> unchecked = new HashSet<>();
+        generatedQuestions.forEach(question -> unchecked.add(question.getId()));
+        Map<Long, List<QuestionDuplicateIndex.Match>> duplicates = new LinkedHashMap<>();
+        for (Question question : generatedQuestions) {
+            unchecked.remove(question.getId());
+            List<QuestionDuplicateIndex.Match> matches = duplicatesOf(question);
+            if (matches != null) {
+                matches = matches.stream()
+                        .filter(match -> match.questionId() != question.getId() && !unchecked.contains(match.questionId()))
+                        .toList();
+                if (!matches.isEmpty()) {
+                    duplicates.put(question.getId(), matches);
+                }
+            }
+        }
 
         return ResponseEntity.ok(Map.of(
                 "message", "Test generated successfully via AI!",
-                "testId", savedTest.getId()));
+                "testId", savedTest.getId(),
+                "duplicates", duplicates));
     }
 
     // ========== TEST MANAGEMENT ==========
@@ -137,6 +220,10 @@ public class RecruiterController {
         } else {
             test.setTotalPoints(0);
         }
+        String adaptiveError = applyAdaptiveSettings(test, testData);
+        if (adaptiveError != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", adaptiveError));
+        }
 
         test = testRepository.save(java.util.Objects.requireNonNull(test));
         return ResponseEntity.ok(test);
@@ -181,11 +268,45 @@ public class RecruiterController {
                     .sum();
             test.setTotalPoints(totalPoints);
         }
+        String adaptiveError = applyAdaptiveSettings(test, testData);
+        if (adaptiveError != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", adaptiveError));
+        }
 
         test = testRepository.save(java.util.Objects.requireNonNull(test));
+        examSnapshotCache.evictTest(id);
+        answerKeyCache.evictTest(id);
         return ResponseEntity.ok(test);
     }
 
+    // Adaptive tests draw questions of their skills from the bank instead of a fixed list; null when valid
+    private String applyAdaptiveSettings(Test test, Map<String, Object> testData) {
+        if (testData.containsKey("adaptive")) {
+            test.setAdaptive(Boolean.TRUE.equals(testData.get("adaptive")));
+        }
+        if (testData.containsKey("adaptiveSkills")) {
+            Object skills = testData.get("adaptiveSkills");
+            test.setAdaptiveSkills(skills instanceof List<?> list
+                    ? String.join(",", list.stream().map(String::valueOf).toList())
+                    : skills == null ? null : skills.toString());
+        }
+        if (testData.containsKey("adaptiveItems")) {
+            Object items = testData.get("adaptiveItems");
+            test.setAdaptiveItems(items == null ? null : Integer.parseInt(items.toString()));
+        }
+        if (!Boolean.TRUE.equals(test.getAdaptive())) {
+            return null;
+        }
+        if (test.getAdaptiveSkills() == null || test.getAdaptiveSkills().isBlank()) {
+            return "adaptiveSkills is required for an adaptive test";
+        }
+        if (test.getAdaptiveItems() != null && test.getAdaptiveItems() < 1) {
+            return "adaptiveItems must be positive";
+        }
+        test.setTotalPoints(AdaptiveTestEngine.MAX_SCORE);
+        return null;
+    }
+
     @DeleteMapping("/tests/{id}")
     public ResponseEntity<?> deleteTest(@PathVariable @org.springframework.lang.NonNull Long id,
             Authentication authentication) {
@@ -202,7 +323,10 @@ public class RecruiterController {
             return ResponseEntity.status(403).body(Map.of("error", "Access denied"));
         }
 
-        testRepository.deleteById(java.util.Objects.requireNonNull(id));
+        testService.deleteTest(id);
+        examSnapshotCache.evictTest(id);
+        answerKeyCache.evictTest(id);
+        leaderboardService.evict(id);
         return ResponseEntity.ok(Map.of("message", "Test deleted successfully!"));
     }
 
@@ -231,6 +355,50 @@ public class RecruiterController {
         return ResponseEntity.ok(questions);
     }
 
+    @GetMapping("/questions/search")
+    public ResponseEntity<?> searchQuestions(QuestionSearchCriteria criteria) {
+        try {
+            return ResponseEntity.ok(questionSearchIndex.search(criteria));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Random questions to assemble a test from; candidateId leaves out questions of tests the candidate has taken
+    @GetMapping("/questions/sample")
+    public ResponseEntity<?> sampleQuestions(
+            @RequestParam String skill,
+            @RequestParam Difficulty difficulty,
+            @RequestParam(defaultValue = "10") int count,
+            @RequestParam(required = false) Long seed,
+            @RequestParam(required = false) List<Long> exclude,
+            @RequestParam(required = false) Long candidateId) {
+        if (count < 1 || count > 500) {
+            return ResponseEntity.badRequest().body(Map.of("error", "count must be between 1 and 500"));
+        }
+        Set<Long> excluded = exclude == null ? new HashSet<>() : new HashSet<>(exclude);
+        if (candidateId != null) {
+            excluded.addAll(testSessionRepository.findSeenQuestionIds(candidateId));
+        }
+
+        List<Long> ids;
+        try {
+            ids = questionSampler.sample(skill, difficulty, count, seed, excluded);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Map.of("error", e.getMessage()));
+        }
+        Map<Long, Question> byId = new HashMap<>();
+        for (Question question : questionRepository.findAllById(ids)) {
+            byId.put(question.getId(), question);
+        }
+        // In draw order; a question deleted through another instance since the last reload is left out
+        return ResponseEntity.ok(ids.stream().map(byId::get).filter(java.util.Objects::nonNull).toList());
+    }
+
     @GetMapping("/questions/{id}")
     public ResponseEntity<?> getQuestionById(@PathVariable @org.springframework.lang.NonNull Long id) {
         Optional<Question> question = questionRepository.findById(id);
@@ -240,8 +408,10 @@ public class RecruiterController {
         return ResponseEntity.notFound().build();
     }
 
+    // The response lists near-duplicates already in the bank; rejectDuplicates refuses to save the question if any
     @PostMapping("/questions")
-    public ResponseEntity<?> createQuestion(@RequestBody Map<String, Object> questionData) {
+    public ResponseEntity<?> createQuestion(@RequestBody Map<String, Object> questionData,
+            @RequestParam(defaultValue = "false") boolean rejectDuplicates) {
         Question question = new Question();
         question.setText((String) questionData.get("text"));
         question.setType(QuestionType.valueOf(questionData.get("type").toString()));
@@ -261,8 +431,110 @@ public class RecruiterController {
             question.setPoints(1);
         }
 
+        List<QuestionDuplicateIndex.Match> duplicates = duplicatesOf(question);
+        if (rejectDuplicates && duplicates != null && !duplicates.isEmpty()) {
+            return ResponseEntity.status(409).body(Map.of(
+                    "error", "Question is a near-duplicate of existing questions",
+                    "duplicates", duplicates));
+        }
+
         question = questionRepository.save(java.util.Objects.requireNonNull(question));
-        return ResponseEntity.ok(question);
+        eventPublisher.publishEvent(QuestionsChangedEvent.saved(List.of(question)));
+        ObjectNode body = objectMapper.valueToTree(question);
+        if (duplicates != null) {
+            body.set("duplicates", objectMapper.valueToTree(duplicates));
+        }
+        return ResponseEntity.ok(body);
+    }
+
+    // Near-duplicates of a question already in the bank, or null while the index is loading; never holds up a write
+    private List<QuestionDuplicateIndex.Match> duplicatesOf(Question question) {
+        try {
+            return questionDuplicateIndex.findSimilar(question.getText(), question.getOptions());
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    // Near-duplicates of a draft question, to check it before saving
+    @PostMapping("/questions/duplicates/check")
+    public ResponseEntity<?> checkDuplicates(@RequestBody Map<String, Object> questionData) {
+        String text = (String) questionData.get("text");
+        if (text == null || text.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "text is required"));
+        }
+        try {
+            return ResponseEntity.ok(Map.of("duplicates",
+                    questionDuplicateIndex.findSimilar(text, (String) questionData.get("options"))));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Clusters of near-duplicate questions across the bank, largest first
+    @GetMapping("/questions/duplicates")
+    public ResponseEntity<?> duplicateReport(
+            @RequestParam(required = false) Double threshold,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (threshold != null && (threshold < 0.5 || threshold > 1)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "threshold must be between 0.5 and 1"));
+        }
+        if (limit < 1 || limit > 500) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must be between 1 and 500"));
+        }
+        QuestionDuplicateIndex.Report report;
+        try {
+            report = questionDuplicateIndex.report(threshold, limit);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Map.of("error", e.getMessage()));
+        }
+
+        // The text of each cluster's first question, so the report can be read without looking every id up
+        Map<Long, String> samples = new HashMap<>();
+        for (Question question : questionRepository.findAllById(
+                report.largest().stream().map(members -> members.get(0)).toList())) {
+            samples.put(question.getId(), question.getText());
+        }
+        List<Map<String, Object>> clusters = report.largest().stream().map(members -> {
+            Map<String, Object> cluster = new LinkedHashMap<>();
+            cluster.put("size", members.size());
+            cluster.put("sample", samples.get(members.get(0)));
+            cluster.put("questionIds", members);
+            return cluster;
+        }).toList();
+        return ResponseEntity.ok(Map.of(
+                "threshold", report.threshold(),
+                "clusters", report.clusters(),
+                "duplicateQuestions", report.questions(),
+                "largest", clusters));
+    }
+
+    // Rows are read from the request body as it arrives; progress and row errors stream back as NDJSON
+    @PostMapping("/questions/import")
+    public ResponseEntity<StreamingResponseBody> importQuestions(
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletRequest request) throws IOException {
+        QuestionImportService.Format importFormat;
+        try {
+            importFormat = QuestionImportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        QuestionImportService.RowReader rows;
+        try {
+            rows = questionImportService.open(request.getInputStream(), importFormat);
+        } catch (IllegalArgumentException e) {
+            byte[] error = objectMapper.writeValueAsBytes(Map.of("error", e.getMessage()));
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(out -> out.write(error));
+        }
+
+        StreamingResponseBody body = out -> questionImportService.importQuestions(rows, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
     }
 
     @PutMapping("/questions/{id}")
@@ -301,6 +573,9 @@ public class RecruiterController {
         }
 
         question = questionRepository.save(java.util.Objects.requireNonNull(question));
+        examSnapshotCache.evictQuestions(List.of(id));
+        answerKeyCache.evictQuestions(List.of(id));
+        eventPublisher.publishEvent(QuestionsChangedEvent.saved(List.of(question)));
         return ResponseEntity.ok(question);
     }
 
@@ -310,22 +585,32 @@ public class RecruiterController {
             return ResponseEntity.notFound().build();
         }
         questionRepository.deleteById(java.util.Objects.requireNonNull(id));
+        examSnapshotCache.evictQuestions(List.of(id));
+        answerKeyCache.evictQuestions(List.of(id));
+        eventPublisher.publishEvent(QuestionsChangedEvent.deleted(List.of(id)));
         return ResponseEntity.ok(Map.of("message", "Question deleted successfully!"));
     }
 
     @PostMapping("/questions/batch-delete")
     @PreAuthorize("hasAnyRole('RECRUITER', 'ADMIN')")
     public ResponseEntity<?> deleteQuestionsBatch(@RequestBody List<Long> ids) {
-        System.out.println("RECRUITER: Batch delete requested for IDs: " + ids);
+        log.info("Batch delete requested for question IDs: {}", ids);
         questionRepository.deleteAllById(ids);
+        examSnapshotCache.evictQuestions(ids);
+        answerKeyCache.evictQuestions(ids);
+        eventPublisher.publishEvent(QuestionsChangedEvent.deleted(ids));
         return ResponseEntity.ok(Map.of("message", "Questions deleted successfully!"));
     }
 
     // ========== RESULTS & ANALYTICS ==========
 
+    // The session listings below are keyset pages of the session search; pass nextCursor back as cursor
     @GetMapping("/tests/{testId}/sessions")
-    public ResponseEntity<List<TestSession>> getTestSessions(
-            @PathVariable @org.springframework.lang.NonNull Long testId, Authentication authentication) {
+    public ResponseEntity<?> getTestSessions(
+            @PathVariable @org.springframework.lang.NonNull Long testId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
         Optional<Test> testOpt = testRepository.findById(testId);
         if (testOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
@@ -339,35 +624,92 @@ public class RecruiterController {
             return ResponseEntity.status(403).body(null);
         }
 
-        List<TestSession> sessions = testSessionRepository.findByTest(test);
-        return ResponseEntity.ok(sessions);
+        SessionSearchCriteria criteria = new SessionSearchCriteria();
+        criteria.setTestId(testId);
+        criteria.setCursor(cursor);
+        criteria.setSize(size);
+        return searchSessions(criteria, authentication);
+    }
+
+    // Streams every session of the test; memory use is independent of the row count
+    @GetMapping("/tests/{testId}/sessions/export")
+    public ResponseEntity<StreamingResponseBody> exportTestSessions(
+            @PathVariable @org.springframework.lang.NonNull Long testId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            Authentication authentication) {
+        Optional<Test> testOpt = testRepository.findById(testId);
+        if (testOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        User currentUser = (User) authentication.getPrincipal();
+        if (currentUser.getRole() != Role.ADMIN &&
+                !testOpt.get().getCreatedBy().getId().equals(currentUser.getId())) {
+            return ResponseEntity.status(403).body(null);
+        }
+
+        ResultExportService.Format exportFormat;
+        try {
+            exportFormat = ResultExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String filename = "test-" + testId + "-results." + exportFormat.extension + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> resultExportService.export(testId, exportFormat, gzip, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.contentType))
+                .body(body);
     }
 
+    // Recruiters only see the candidate's sessions of their own tests
     @GetMapping("/candidates/{candidateId}/sessions")
-    public ResponseEntity<List<TestSession>> getCandidateSessions(
-            @PathVariable @org.springframework.lang.NonNull Long candidateId) {
+    public ResponseEntity<?> getCandidateSessions(
+            @PathVariable @org.springframework.lang.NonNull Long candidateId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
         Optional<User> candidateOpt = userRepository.findById(candidateId);
         if (candidateOpt.isEmpty() || candidateOpt.get().getRole() != Role.CANDIDATE) {
             return ResponseEntity.notFound().build();
         }
 
-        List<TestSession> sessions = testSessionRepository.findByCandidate(candidateOpt.get());
-        return ResponseEntity.ok(sessions);
+        SessionSearchCriteria criteria = new SessionSearchCriteria();
+        criteria.setCandidateId(candidateId);
+        criteria.setCursor(cursor);
+        criteria.setSize(size);
+        return searchSessions(criteria, authentication);
     }
 
     @GetMapping("/sessions/completed")
-    public ResponseEntity<List<TestSession>> getCompletedSessions(Authentication authentication) {
+    public ResponseEntity<?> getCompletedSessions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+        SessionSearchCriteria criteria = new SessionSearchCriteria();
+        criteria.setCompleted(true);
+        criteria.setCursor(cursor);
+        criteria.setSize(size);
+        return searchSessions(criteria, authentication);
+    }
+
+    // Keyset-paginated listing; covers per-test, per-candidate and completed views with filters applied in SQL
+    @GetMapping("/sessions/search")
+    public ResponseEntity<?> searchSessions(SessionSearchCriteria criteria, Authentication authentication) {
         User currentUser = (User) authentication.getPrincipal();
-        List<TestSession> sessions;
-        if (currentUser.getRole() == Role.ADMIN) {
-            sessions = testSessionRepository.findAll();
-        } else {
-            sessions = testSessionRepository.findAll().stream()
-                    .filter(s -> s.getTest().getCreatedBy().getId().equals(currentUser.getId()))
-                    .filter(TestSession::getIsCompleted)
-                    .toList();
+        if (currentUser.getRole() != Role.ADMIN) {
+            criteria.setCreatedBy(currentUser.getId());
+        }
+
+        // The repository proxy hands a bad cursor or sort back as InvalidDataAccessApiUsageException
+        try {
+            SessionPage page = testSessionRepository.search(criteria);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException | InvalidDataAccessApiUsageException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
-        return ResponseEntity.ok(sessions);
     }
 
     @GetMapping("/sessions/{sessionId}/details")
@@ -386,28 +728,34 @@ public class RecruiterController {
             return ResponseEntity.status(403).body(Map.of("error", "Access denied"));
         }
 
-        return ResponseEntity.ok(session);
+        // Answers are stored encoded; the response keeps carrying them as a JSON string
+        ObjectNode body = objectMapper.valueToTree(session);
+        try {
+            body.put("answers", objectMapper.writeValueAsString(testService.getSubmittedAnswers(session)));
+        } catch (JsonProcessingException e) {
+            body.putNull("answers");
+        }
+        return ResponseEntity.ok(body);
     }
 
     @GetMapping("/analytics")
     public ResponseEntity<Map<String, Object>> getAnalytics(Authentication authentication) {
         User currentUser = (User) authentication.getPrincipal();
 
-        List<Test> tests;
+        long totalTests;
+        long activeTests;
+        TestSessionRepository.SessionCounts sessionCounts;
         if (currentUser.getRole() == Role.ADMIN) {
-            tests = testRepository.findAll();
+            totalTests = testRepository.count();
+            activeTests = testRepository.countByIsActiveTrue();
+            sessionCounts = testSessionRepository.countSessions();
         } else {
-            tests = testRepository.findByCreatedBy(currentUser);
+            totalTests = testRepository.countByCreatedBy_Id(currentUser.getId());
+            activeTests = testRepository.countByCreatedBy_IdAndIsActiveTrue(currentUser.getId());
+            sessionCounts = testSessionRepository.countSessionsByTestCreator(currentUser.getId());
         }
-
-        long totalTests = tests.size();
-        long activeTests = tests.stream().filter(Test::getIsActive).count();
-        long totalSessions = testSessionRepository.findAll().stream()
-                .filter(s -> tests.contains(s.getTest()))
-                .count();
-        long completedSessions = testSessionRepository.findAll().stream()
-                .filter(s -> tests.contains(s.getTest()) && s.getIsCompleted())
-                .count();
+        long totalSessions = sessionCounts.getTotal();
+        long completedSessions = sessionCounts.getCompleted();
 
         return ResponseEntity.ok(Map.of(
                 "totalTests", totalTests,
@@ -416,6 +764,33 @@ public class RecruiterController {
                 "completedSessions", completedSessions));
     }
 
+    // Per-skill aggregates over session_skill_scores; recruiters only see their own tests
+    @GetMapping("/analytics/skills")
+    public ResponseEntity<List<SkillSummary>> getSkillAnalytics(SkillScoreFilter filter,
+            Authentication authentication) {
+        return ResponseEntity.ok(skillScoreRepository.summarize(visibleTo(filter, authentication)));
+    }
+
+    @GetMapping("/analytics/skills/{skill}/distribution")
+    public ResponseEntity<List<SkillBucket>> getSkillDistribution(@PathVariable String skill,
+            SkillScoreFilter filter, Authentication authentication) {
+        return ResponseEntity.ok(skillScoreRepository.distribution(skill, visibleTo(filter, authentication)));
+    }
+
+    @GetMapping("/analytics/skills/{skill}/top")
+    public ResponseEntity<List<SkillTopScore>> getSkillTopScores(@PathVariable String skill,
+            SkillScoreFilter filter, Authentication authentication) {
+        return ResponseEntity.ok(skillScoreRepository.top(skill, visibleTo(filter, authentication)));
+    }
+
+    private SkillScoreFilter visibleTo(SkillScoreFilter filter, Authentication authentication) {
+        User currentUser = (User) authentication.getPrincipal();
+        if (currentUser.getRole() != Role.ADMIN) {
+            filter.setCreatedBy(currentUser.getId());
+        }
+        return filter;
+    }
+
     @PostMapping("/invite-candidate")
     public ResponseEntity<?> inviteCandidate(@RequestBody Map<String, Object> inviteData) {
         String email = (String) inviteData.get("email");
@@ -0,0 +1,9 @@
+package com.skillevaluator.dto;
+
+import lombok.Data;
+
+@Data
+public class AdaptiveAnswerRequest {
+    private Long questionId; // The question on screen
+    private String answer;
+}
@@ -0,0 +1,9 @@
+package com.skillevaluator.dto;
+
+import lombok.Data;
+import java.util.Map;
+
+@Data
+public class AnswerDeltaRequest {
+    private Map<Long, String> answers; // questionId -> answer; only the changed questions, null clears one
+}
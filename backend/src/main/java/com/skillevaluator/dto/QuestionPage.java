@@ -0,0 +1,24 @@
+package com.skillevaluator.dto;
+
+import com.skillevaluator.model.Question;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of question search results. {@code total} and the facet counts
+ * cover every match, not just this page; each facet is counted with the
+ * other filters applied but not its own, so it shows what selecting another
+ * value would return.
+ */
+@Data
+@AllArgsConstructor
+public class QuestionPage {
+    private List<Question> items;
+    private String nextCursor; // null on the last page
+    private long total;
+    private Map<String, Long> skills;
+    private Map<String, Long> difficulties;
+}
@@ -0,0 +1,37 @@
+package com.skillevaluator.dto;
+
+import com.skillevaluator.model.Difficulty;
+import com.skillevaluator.model.QuestionType;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Query parameters of the question bank search. {@code q} matches words of
+ * the question text and explanation (all of them, case-insensitively; a
+ * trailing {@code *} makes a word a prefix). Each facet filter accepts several
+ * values, repeated or comma separated, and the filters combine with AND.
+ * Results are ordered newest first by id; {@code cursor} is the opaque value
+ * returned as the previous page's nextCursor.
+ */
+@Data
+public class QuestionSearchCriteria {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 500;
+
+    private String q;
+    private List<String> skill;
+    private List<Difficulty> difficulty;
+    private List<QuestionType> type;
+
+    private String cursor;
+    private Integer size;
+
+    public int pageSize() {
+        if (size == null || size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+}
@@ -0,0 +1,13 @@
+package com.skillevaluator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SessionPage {
+    private List<SessionSummary> items;
+    private String nextCursor; // null on the last page
+}
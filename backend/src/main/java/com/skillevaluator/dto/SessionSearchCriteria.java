@@ -0,0 +1,54 @@
+package com.skillevaluator.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Query parameters of the keyset-paginated session search. Results are
+ * ordered newest first by {@code sort} ("submittedAt" or "startedAt") and
+ * id, and {@code from}/{@code to} bound that same timestamp. Sessions that
+ * expired without a submission sort by their expiry under "submittedAt".
+ * {@code cursor} is the opaque value returned as the previous page's
+ * nextCursor.
+ */
+@Data
+public class SessionSearchCriteria {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 500;
+
+    private Long testId;
+    private Long candidateId;
+    private Long createdBy; // forced to the caller for non-admins
+    private String status;
+    private Boolean completed;
+    private Integer minScore;
+    private Integer maxScore;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    private String sort;
+    private String cursor;
+    private Integer size;
+
+    /** Completed sessions sort by submission (or expiry) time, anything else by start time. */
+    public boolean sortsBySubmittedAt() {
+        if (sort != null) {
+            return "submittedAt".equals(sort);
+        }
+        return Boolean.TRUE.equals(completed) || (status != null && status.endsWith("SUBMITTED"));
+    }
+
+    public int pageSize() {
+        if (size == null || size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+}
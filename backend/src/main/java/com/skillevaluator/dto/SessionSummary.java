@@ -0,0 +1,30 @@
+package com.skillevaluator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat row for session listings, selected directly in SQL so no entity
+ * graph (test questions, candidate account) is loaded per row.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionSummary {
+    private Long id;
+    private Long testId;
+    private String testTitle;
+    private Long candidateId;
+    private String candidateUsername;
+    private String status;
+    private Boolean isCompleted;
+    private Integer score;
+    private Integer totalPoints;
+    private String skillBreakdown;
+    private LocalDateTime startedAt;
+    private LocalDateTime submittedAt;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,11 @@
+package com.skillevaluator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SkillBucket {
+    private Integer bucket; // tenths of the available points; 10 is a full score
+    private Long sessions;
+}
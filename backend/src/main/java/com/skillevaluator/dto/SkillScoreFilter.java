@@ -0,0 +1,35 @@
+package com.skillevaluator.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters of the per-skill analytics. {@code from}/{@code to} bound
+ * the submission time; {@code limit} only applies to top-N queries.
+ */
+@Data
+public class SkillScoreFilter {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 100;
+
+    private Long testId;
+    private Long createdBy; // forced to the caller for non-admins
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    private Integer limit;
+
+    public int topLimit() {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
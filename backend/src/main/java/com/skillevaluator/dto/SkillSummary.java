@@ -0,0 +1,15 @@
+package com.skillevaluator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SkillSummary {
+    private String skill;
+    private Long sessions;
+    private Double averagePoints;
+    private Integer minPoints;
+    private Integer maxPoints;
+    private Double averagePercentage; // of the points available for the skill
+}
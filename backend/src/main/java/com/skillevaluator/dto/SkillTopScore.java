@@ -0,0 +1,14 @@
+package com.skillevaluator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SkillTopScore {
+    private Long sessionId;
+    private Long testId;
+    private String candidateUsername;
+    private Integer points;
+    private Integer maxPoints;
+}
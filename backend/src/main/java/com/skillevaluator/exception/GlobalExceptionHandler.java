@@ -1,7 +1,9 @@
 package com.skillevaluator.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -28,4 +30,21 @@ public class GlobalExceptionHandler {
 
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
     }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<Map<String, String>> handlePasswordHashingBusy(PasswordHashingBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", ex.getMessage()));
+    }
+
+    @ExceptionHandler(InternalAuthenticationServiceException.class)
+    public ResponseEntity<Map<String, String>> handleInternalAuthenticationError(
+            InternalAuthenticationServiceException ex) throws InternalAuthenticationServiceException {
+        // The authentication provider wraps encoder failures raised while loading the user
+        if (ex.getCause() instanceof PasswordHashingBusyException busy) {
+            return handlePasswordHashingBusy(busy);
+        }
+        throw ex;
+    }
 }
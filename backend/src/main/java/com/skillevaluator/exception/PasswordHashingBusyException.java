@@ -0,0 +1,16 @@
+package com.skillevaluator.exception;
+
+/**
+ * Thrown when the password hashing pool is saturated and cannot accept more
+ * work. Mapped to 503 so clients back off instead of queuing indefinitely.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
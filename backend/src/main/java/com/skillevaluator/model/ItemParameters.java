@@ -0,0 +1,38 @@
+package com.skillevaluator.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Calibrated two-parameter logistic (2PL) model of one question: a
+ * candidate of ability {@code theta} answers it correctly with probability
+ * {@code 1 / (1 + exp(-discrimination * (theta - difficulty)))}. Written by
+ * the item calibration task, read by the adaptive test engine.
+ */
+@Entity
+@Table(name = "question_item_params")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemParameters {
+
+    @Id
+    @Column(name = "question_id")
+    private Long questionId;
+
+    @Column(nullable = false)
+    private Double discrimination;
+
+    @Column(nullable = false)
+    private Double difficulty; // On the ability scale, where candidates are N(0, 1)
+
+    @Column(nullable = false)
+    private Integer responses; // Answers the estimate is based on
+
+    @Column(name = "calibrated_at", nullable = false)
+    private LocalDateTime calibratedAt;
+}
@@ -11,14 +11,15 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "questions")
+@Table(name = "questions", uniqueConstraints = @UniqueConstraint(name = "uk_questions_import_key", columnNames = "import_key"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Question {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "questions_seq")
+    @SequenceGenerator(name = "questions_seq", sequenceName = "questions_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 1000)
@@ -53,4 +54,7 @@ public class Question {
 
     @Column(nullable = false)
     private Integer points = 1; // Points for this question
+
+    @Column(name = "import_key", length = 64)
+    private String importKey; // Natural key of imported questions, so re-imports update them
 }
@@ -0,0 +1,48 @@
+package com.skillevaluator.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One skill's score in a completed session, so per-skill analytics are SQL
+ * aggregates rather than parsing every session's {@code skillBreakdown}.
+ */
+@Entity
+@Table(name = "session_skill_scores", indexes = {
+        @Index(name = "idx_skill_scores_skill_test", columnList = "skill, test_id, points, max_points"),
+        @Index(name = "idx_skill_scores_test_skill", columnList = "test_id, skill, points, max_points")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_skill_scores_session_skill", columnNames = { "session_id", "skill" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SkillScore {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "session_skill_scores_seq")
+    @SequenceGenerator(name = "session_skill_scores_seq", sequenceName = "session_skill_scores_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "session_id", nullable = false)
+    private Long sessionId;
+
+    @Column(name = "test_id", nullable = false)
+    private Long testId;
+
+    @Column(nullable = false, length = 100)
+    private String skill;
+
+    @Column(nullable = false)
+    private Integer points;
+
+    @Column
+    private Integer maxPoints; // Points available for the skill in the test
+
+    @Column
+    private LocalDateTime submittedAt;
+}
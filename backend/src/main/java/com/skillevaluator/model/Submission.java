@@ -0,0 +1,62 @@
+package com.skillevaluator.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A submission accepted in async mode, waiting to be scored. The row doubles
+ * as the candidate's ticket: it holds the final score once processed.
+ */
+@Entity
+@Table(name = "submission_queue", indexes = {
+        @Index(name = "idx_submission_queue_status", columnList = "status, id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_submission_queue_session", columnNames = "session_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Submission {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "submission_queue_seq")
+    @SequenceGenerator(name = "submission_queue_seq", sequenceName = "submission_queue_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "session_id", nullable = false)
+    private Long sessionId;
+
+    @Column(nullable = false)
+    private Long testId;
+
+    @Column(nullable = false)
+    private Long candidateId;
+
+    @Column(length = 10000)
+    private String answers; // JSON string of the submitted answers
+
+    @Column(nullable = false)
+    private Boolean autoSubmit = false;
+
+    @Column(nullable = false, length = 20)
+    private String status; // "QUEUED", "PROCESSING", "DONE", "FAILED"
+
+    @Column
+    private Integer score;
+
+    @Column
+    private Integer totalPoints;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column
+    private LocalDateTime completedAt;
+}
@@ -12,14 +12,15 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "tests")
+@Table(name = "tests", indexes = @Index(name = "idx_tests_created_by", columnList = "created_by"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Test {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tests_seq")
+    @SequenceGenerator(name = "tests_seq", sequenceName = "tests_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -47,6 +48,15 @@ public class Test {
     @Column(nullable = false)
     private Boolean isActive = true;
 
+    @Column
+    private Boolean adaptive; // Questions are picked one at a time from the bank instead of the fixed list
+
+    @Column(name = "adaptive_skills", length = 500)
+    private String adaptiveSkills; // Comma-separated skills an adaptive test draws from
+
+    @Column(name = "adaptive_items")
+    private Integer adaptiveItems; // Most questions an adaptive session asks
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
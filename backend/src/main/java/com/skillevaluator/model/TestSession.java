@@ -1,5 +1,6 @@
 package com.skillevaluator.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -8,14 +9,21 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "test_sessions")
+@Table(name = "test_sessions", indexes = {
+        @Index(name = "idx_test_sessions_test_completed", columnList = "test_id, is_completed"),
+        @Index(name = "idx_test_sessions_candidate", columnList = "candidate_id"),
+        @Index(name = "idx_test_sessions_test_submitted", columnList = "test_id, submitted_at, id"),
+        @Index(name = "idx_test_sessions_submitted", columnList = "submitted_at, id"),
+        @Index(name = "idx_test_sessions_started", columnList = "started_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class TestSession {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "test_sessions_seq")
+    @SequenceGenerator(name = "test_sessions_seq", sequenceName = "test_sessions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -45,7 +53,18 @@ public class TestSession {
     private Integer totalPoints; // Total possible points
 
     @Column(length = 10000)
-    private String answers; // JSON string storing candidate's answers
+    private String answers; // JSON answers while in progress; cleared once encoded on submit, kept by adaptive tests
+
+    @JsonIgnore
+    @Column(name = "answers_blob", length = 10000)
+    private byte[] answersBlob; // Submitted answers encoded against the test's AnswerKey
+
+    @JsonIgnore
+    @Column(name = "question_ids", length = 10000)
+    private byte[] questionIds; // The test's questions when the session started, as AnswerKey.encodeQuestionIds
+
+    @Column
+    private Long answersVersion; // Last autosave flushed into answers
 
     @Column(length = 2000)
     private String skillBreakdown; // JSON string storing skill category scores
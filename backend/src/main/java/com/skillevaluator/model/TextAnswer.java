@@ -0,0 +1,39 @@
+package com.skillevaluator.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A submitted answer that is not one of its question's choices, kept beside
+ * the session's encoded {@code answersBlob}.
+ */
+@Entity
+@Table(name = "session_text_answers", indexes = {
+        @Index(name = "idx_text_answers_session", columnList = "session_id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_text_answers_session_question", columnNames = { "session_id", "question_id" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TextAnswer {
+
+    /** The longest answer accepted by autosave and submit. */
+    public static final int MAX_LENGTH = 10000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "session_text_answers_seq")
+    @SequenceGenerator(name = "session_text_answers_seq", sequenceName = "session_text_answers_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "session_id", nullable = false)
+    private Long sessionId;
+
+    @Column(name = "question_id", nullable = false)
+    private Long questionId;
+
+    @Column(length = MAX_LENGTH)
+    private String answer;
+}
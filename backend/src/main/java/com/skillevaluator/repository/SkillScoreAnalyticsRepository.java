@@ -0,0 +1,20 @@
+package com.skillevaluator.repository;
+
+import com.skillevaluator.dto.SkillBucket;
+import com.skillevaluator.dto.SkillScoreFilter;
+import com.skillevaluator.dto.SkillSummary;
+import com.skillevaluator.dto.SkillTopScore;
+
+import java.util.List;
+
+public interface SkillScoreAnalyticsRepository {
+
+    /** Count, average, min, max and average percentage per skill. */
+    List<SkillSummary> summarize(SkillScoreFilter filter);
+
+    /** Sessions per tenth of the skill's available points. */
+    List<SkillBucket> distribution(String skill, SkillScoreFilter filter);
+
+    /** Highest scores in the skill, ties by ascending session id. */
+    List<SkillTopScore> top(String skill, SkillScoreFilter filter);
+}
@@ -0,0 +1,118 @@
+package com.skillevaluator.repository;
+
+import com.skillevaluator.dto.SkillBucket;
+import com.skillevaluator.dto.SkillScoreFilter;
+import com.skillevaluator.dto.SkillSummary;
+import com.skillevaluator.dto.SkillTopScore;
+import com.skillevaluator.model.SkillScore;
+import com.skillevaluator.model.Test;
+import com.skillevaluator.model.TestSession;
+import com.skillevaluator.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criteria implementation of {@link SkillScoreAnalyticsRepository}. Only the
+ * filters that are set become predicates, so the planner can use the
+ * (test, skill) and (skill, test) indexes instead of a generic plan.
+ */
+public class SkillScoreAnalyticsRepositoryImpl implements SkillScoreAnalyticsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<SkillSummary> summarize(SkillScoreFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SkillSummary> query = cb.createQuery(SkillSummary.class);
+        Root<SkillScore> score = query.from(SkillScore.class);
+        Expression<Integer> points = score.get("points");
+
+        query.select(cb.construct(SkillSummary.class,
+                score.get("skill"), cb.count(score), cb.avg(points), cb.min(points), cb.max(points),
+                cb.avg(percentage(cb, score))))
+                .where(filters(cb, query, score, filter).toArray(Predicate[]::new))
+                .groupBy(score.get("skill"))
+                .orderBy(cb.asc(score.get("skill")));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<SkillBucket> distribution(String skill, SkillScoreFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SkillBucket> query = cb.createQuery(SkillBucket.class);
+        Root<SkillScore> score = query.from(SkillScore.class);
+        Expression<Integer> maxPoints = score.get("maxPoints");
+        Expression<Integer> bucket = cb.floor(cb.quot(cb.prod(10.0, score.get("points")), maxPoints))
+                .as(Integer.class);
+
+        List<Predicate> where = filters(cb, query, score, filter);
+        where.add(cb.equal(score.get("skill"), skill));
+        where.add(cb.gt(maxPoints, 0));
+        query.select(cb.construct(SkillBucket.class, bucket, cb.count(score)))
+                .where(where.toArray(Predicate[]::new))
+                .groupBy(bucket)
+                .orderBy(cb.asc(bucket));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<SkillTopScore> top(String skill, SkillScoreFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SkillTopScore> query = cb.createQuery(SkillTopScore.class);
+        Root<SkillScore> score = query.from(SkillScore.class);
+        Root<TestSession> session = query.from(TestSession.class);
+        Join<TestSession, User> candidate = session.join("candidate");
+
+        List<Predicate> where = filters(cb, query, score, filter);
+        where.add(cb.equal(score.get("skill"), skill));
+        where.add(cb.equal(session.get("id"), score.get("sessionId")));
+        query.select(cb.construct(SkillTopScore.class,
+                score.get("sessionId"), score.get("testId"), candidate.get("username"), score.get("points"),
+                score.get("maxPoints")))
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(cb.desc(score.get("points")), cb.asc(score.get("sessionId")));
+        return entityManager.createQuery(query).setMaxResults(filter.topLimit()).getResultList();
+    }
+
+    private static Expression<Number> percentage(CriteriaBuilder cb, Root<SkillScore> score) {
+        Expression<Integer> maxPoints = score.get("maxPoints");
+        return cb.<Number>selectCase()
+                .when(cb.gt(maxPoints, 0), cb.quot(cb.prod(100.0, score.get("points")), maxPoints))
+                .otherwise(cb.nullLiteral(Double.class));
+    }
+
+    private static List<Predicate> filters(CriteriaBuilder cb, CriteriaQuery<?> query, Root<SkillScore> score,
+            SkillScoreFilter filter) {
+        List<Predicate> where = new ArrayList<>();
+        if (filter.getTestId() != null) {
+            where.add(cb.equal(score.get("testId"), filter.getTestId()));
+        }
+        if (filter.getCreatedBy() != null) {
+            Subquery<Long> tests = query.subquery(Long.class);
+            Root<Test> test = tests.from(Test.class);
+            tests.select(test.get("id")).where(cb.equal(test.get("createdBy").get("id"), filter.getCreatedBy()));
+            where.add(score.get("testId").in(tests));
+        }
+        LocalDateTime from = filter.getFrom();
+        if (from != null) {
+            where.add(cb.greaterThanOrEqualTo(score.get("submittedAt"), from));
+        }
+        LocalDateTime to = filter.getTo();
+        if (to != null) {
+            where.add(cb.lessThan(score.get("submittedAt"), to));
+        }
+        return where;
+    }
+}
@@ -0,0 +1,18 @@
+package com.skillevaluator.repository;
+
+import com.skillevaluator.model.SkillScore;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface SkillScoreRepository extends JpaRepository<SkillScore, Long>, SkillScoreAnalyticsRepository {
+
+    @Transactional
+    @Modifying
+    @Query("delete from SkillScore s where s.testId = :testId")
+    int deleteByTestId(@Param("testId") Long testId);
+}
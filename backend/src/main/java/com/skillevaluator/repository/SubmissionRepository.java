@@ -0,0 +1,30 @@
+package com.skillevaluator.repository;
+
+import com.skillevaluator.model.Submission;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SubmissionRepository extends JpaRepository<Submission, Long> {
+
+    Optional<Submission> findBySessionId(Long sessionId);
+
+    @Query("select s.sessionId from Submission s where s.sessionId in :sessionIds "
+            + "and s.status in ('QUEUED', 'PROCESSING')")
+    List<Long> findPendingSessionIds(@Param("sessionIds") Collection<Long> sessionIds);
+
+    @Modifying
+    @Query("update Submission s set s.status = 'QUEUED' where s.status = 'PROCESSING'")
+    int requeueProcessing();
+
+    @Modifying
+    @Query("delete from Submission s where s.testId = :testId")
+    int deleteByTestId(@Param("testId") Long testId);
+}
@@ -2,14 +2,23 @@ package com.skillevaluator.repository;
 
 import com.skillevaluator.model.Test;
 import com.skillevaluator.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TestRepository extends JpaRepository<Test, Long> {
     List<Test> findByCreatedBy(User createdBy);
     List<Test> findByIsActiveTrue();
+    long countByIsActiveTrue();
+    long countByCreatedBy_Id(Long createdById);
+    long countByCreatedBy_IdAndIsActiveTrue(Long createdById);
+
+    // Start path: the test, its creator and its questions in a single statement
+    @EntityGraph(attributePaths = { "questions", "createdBy" })
+    Optional<Test> findWithQuestionsById(Long id);
 }
 
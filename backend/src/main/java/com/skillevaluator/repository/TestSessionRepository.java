@@ -4,16 +4,57 @@ import com.skillevaluator.model.Test;
 import com.skillevaluator.model.TestSession;
 import com.skillevaluator.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TestSessionRepository extends JpaRepository<TestSession, Long> {
+public interface TestSessionRepository extends JpaRepository<TestSession, Long>, TestSessionSearchRepository {
+
+    interface SessionCounts {
+        long getTotal();
+        long getCompleted();
+    }
+
     List<TestSession> findByCandidate(User candidate);
     List<TestSession> findByTest(Test test);
     Optional<TestSession> findByTestAndCandidateAndIsCompletedFalse(Test test, User candidate);
     List<TestSession> findByCandidateAndIsCompletedTrue(User candidate);
+
+    // Fetches the eager associations with the session so resuming does not cost more selects
+    @Query("select s from TestSession s join fetch s.candidate join fetch s.test t join fetch t.createdBy "
+            + "where s.test.id = :testId and s.candidate.id = :candidateId and s.isCompleted = false")
+    Optional<TestSession> findOpenSession(@Param("testId") Long testId, @Param("candidateId") Long candidateId);
+
+    // A batch of sessions with their eager associations, for the submission workers
+    @Query("select s from TestSession s join fetch s.test t join fetch t.createdBy join fetch s.candidate "
+            + "where s.id in :ids")
+    List<TestSession> findAllWithTestByIdIn(@Param("ids") java.util.Collection<Long> ids);
+
+    @Modifying
+    @Query("update TestSession s set s.isCompleted = true, s.status = 'EXPIRED' "
+            + "where s.id in :ids and s.isCompleted = false")
+    int expireOpenSessions(@Param("ids") java.util.Collection<Long> ids);
+
+    // (id, score) of every completed session of a test, for rebuilding its leaderboard
+    @Query("select s.id, s.score from TestSession s where s.test.id = :testId and s.isCompleted = true")
+    List<Object[]> findCompletedScoresByTestId(@Param("testId") Long testId);
+
+    // Questions of every test the candidate has started, so new draws can leave them out
+    @Query("select distinct q.id from TestSession s join s.test t join t.questions q where s.candidate.id = :candidateId")
+    List<Long> findSeenQuestionIds(@Param("candidateId") Long candidateId);
+
+    // Dashboard counts in one aggregate statement each, served by the test_id/created_by indexes
+    @Query("select count(s) as total, coalesce(sum(case when s.isCompleted = true then 1 else 0 end), 0) as completed "
+            + "from TestSession s")
+    SessionCounts countSessions();
+
+    @Query("select count(s) as total, coalesce(sum(case when s.isCompleted = true then 1 else 0 end), 0) as completed "
+            + "from TestSession s join s.test t where t.createdBy.id = :creatorId")
+    SessionCounts countSessionsByTestCreator(@Param("creatorId") Long creatorId);
 }
 
@@ -0,0 +1,14 @@
+package com.skillevaluator.repository;
+
+import com.skillevaluator.dto.SessionPage;
+import com.skillevaluator.dto.SessionSearchCriteria;
+
+public interface TestSessionSearchRepository {
+
+    /**
+     * One keyset page of sessions matching the criteria, newest first.
+     *
+     * @throws IllegalArgumentException if the cursor or sort is malformed
+     */
+    SessionPage search(SessionSearchCriteria criteria);
+}
@@ -0,0 +1,129 @@
+package com.skillevaluator.repository;
+
+import com.skillevaluator.dto.SessionPage;
+import com.skillevaluator.dto.SessionSearchCriteria;
+import com.skillevaluator.dto.SessionSummary;
+import com.skillevaluator.model.Test;
+import com.skillevaluator.model.TestSession;
+import com.skillevaluator.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Criteria implementation of {@link TestSessionSearchRepository}. Filters are
+ * pushed into SQL and pages are cut with a keyset predicate on (sort key, id)
+ * instead of OFFSET, so cost stays flat however deep the caller pages.
+ */
+public class TestSessionSearchRepositoryImpl implements TestSessionSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private record Cursor(LocalDateTime sortValue, long id) {
+
+        static Cursor decode(String encoded) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8)
+                        .split("\\|", 2);
+                return new Cursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((sortValue + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    public SessionPage search(SessionSearchCriteria criteria) {
+        if (criteria.getSort() != null && !criteria.getSort().equals("submittedAt")
+                && !criteria.getSort().equals("startedAt")) {
+            throw new IllegalArgumentException("sort must be submittedAt or startedAt");
+        }
+        boolean bySubmittedAt = criteria.sortsBySubmittedAt();
+        int size = criteria.pageSize();
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SessionSummary> query = cb.createQuery(SessionSummary.class);
+        Root<TestSession> session = query.from(TestSession.class);
+        Join<TestSession, Test> test = session.join("test");
+        Join<TestSession, User> candidate = session.join("candidate");
+        // Sessions closed as EXPIRED were never submitted; they sort by the time they ran out instead
+        Expression<LocalDateTime> sortKey = bySubmittedAt
+                ? cb.coalesce(session.<LocalDateTime>get("submittedAt"), session.<LocalDateTime>get("expiresAt"))
+                : session.get("startedAt");
+        Path<Long> id = session.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        if (criteria.getTestId() != null) {
+            where.add(cb.equal(test.get("id"), criteria.getTestId()));
+        }
+        if (criteria.getCandidateId() != null) {
+            where.add(cb.equal(candidate.get("id"), criteria.getCandidateId()));
+        }
+        if (criteria.getCreatedBy() != null) {
+            where.add(cb.equal(test.get("createdBy").get("id"), criteria.getCreatedBy()));
+        }
+        if (criteria.getStatus() != null) {
+            where.add(cb.equal(session.get("status"), criteria.getStatus()));
+        }
+        if (criteria.getCompleted() != null) {
+            where.add(cb.equal(session.get("isCompleted"), criteria.getCompleted()));
+        }
+        if (criteria.getMinScore() != null) {
+            where.add(cb.greaterThanOrEqualTo(session.get("score"), criteria.getMinScore()));
+        }
+        if (criteria.getMaxScore() != null) {
+            where.add(cb.lessThanOrEqualTo(session.get("score"), criteria.getMaxScore()));
+        }
+        if (criteria.getFrom() != null) {
+            where.add(cb.greaterThanOrEqualTo(sortKey, criteria.getFrom()));
+        }
+        if (criteria.getTo() != null) {
+            where.add(cb.lessThan(sortKey, criteria.getTo()));
+        }
+        if (criteria.getCursor() != null && !criteria.getCursor().isBlank()) {
+            Cursor cursor = Cursor.decode(criteria.getCursor());
+            // (sortKey, id) < (cursor.sortValue, cursor.id), spelled out for portability
+            where.add(cb.or(
+                    cb.lessThan(sortKey, cursor.sortValue()),
+                    cb.and(cb.equal(sortKey, cursor.sortValue()), cb.lessThan(id, cursor.id()))));
+        }
+
+        query.select(cb.construct(SessionSummary.class,
+                id, test.get("id"), test.get("title"), candidate.get("id"), candidate.get("username"),
+                session.get("status"), session.get("isCompleted"), session.get("score"),
+                session.get("totalPoints"), session.get("skillBreakdown"), session.get("startedAt"),
+                session.get("submittedAt"), session.get("expiresAt")))
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(cb.desc(sortKey), cb.desc(id));
+
+        // One extra row tells whether there is a next page
+        List<SessionSummary> rows = entityManager.createQuery(query).setMaxResults(size + 1).getResultList();
+        if (rows.size() <= size) {
+            return new SessionPage(rows, null);
+        }
+
+        List<SessionSummary> page = rows.subList(0, size);
+        SessionSummary last = page.get(size - 1);
+        LocalDateTime lastSortValue = !bySubmittedAt ? last.getStartedAt()
+                : last.getSubmittedAt() != null ? last.getSubmittedAt() : last.getExpiresAt();
+        return new SessionPage(new ArrayList<>(page), new Cursor(lastSortValue, last.getId()).encode());
+    }
+}
@@ -0,0 +1,22 @@
+package com.skillevaluator.repository;
+
+import com.skillevaluator.model.TextAnswer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface TextAnswerRepository extends JpaRepository<TextAnswer, Long> {
+
+    List<TextAnswer> findBySessionId(Long sessionId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from TextAnswer a where a.sessionId in (select s.id from TestSession s where s.test.id = :testId)")
+    int deleteByTestId(@Param("testId") Long testId);
+}
@@ -1,7 +1,6 @@
 package com.skillevaluator.security;
 
 import com.skillevaluator.model.User;
-import com.skillevaluator.repository.UserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,7 +23,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtTokenProvider tokenProvider;
 
     @Autowired
-    private UserRepository userRepository;
+    private UserPrincipalCache userPrincipalCache;
 
     @Override
     protected void doFilterInternal(@org.springframework.lang.NonNull HttpServletRequest request,
@@ -34,21 +33,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
+            Optional<JwtTokenProvider.VerifiedToken> verified = StringUtils.hasText(jwt)
+                    ? tokenProvider.verifyToken(jwt)
+                    : Optional.empty();
 
-                // Load full User object from database
-                Optional<User> userOpt = userRepository.findByUsername(username);
-                if (userOpt.isPresent()) {
+            if (verified.isPresent()) {
+                String username = verified.get().username();
+
+                // Load User snapshot, hitting the database only on a cache miss
+                Optional<User> userOpt = userPrincipalCache.getByUsername(username);
+                if (userOpt.isPresent() && userOpt.get().isEnabled()) {
                     User user = userOpt.get();
 
-                    // Use user's actual authorities from database
+                    // Use user's current authorities
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                             user, null, user.getAuthorities());
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                    System.out.println(
-                            "AUTH: User " + username + " authenticated with authorities: " + user.getAuthorities());
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("User " + username + " authenticated with authorities: " + user.getAuthorities());
+                    }
 
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
@@ -2,6 +2,7 @@ package com.skillevaluator.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -9,7 +10,12 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Component
@@ -21,8 +27,37 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private long jwtExpirationMs;
 
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    private SecretKey signingKey;
+
+    private JwtParser parser;
+
+    // Tokens that already passed signature verification, keyed by SHA-256 digest
+    // of the compact token so raw tokens are never retained in memory
+    private final ConcurrentHashMap<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * Claims of a token whose signature and expiry have been checked.
+     */
+    public record VerifiedToken(String username, String roles, long expiresAtMillis) {
+
+        boolean isExpired(long nowMillis) {
+            return expiresAtMillis <= nowMillis;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        return signingKey;
     }
 
     public String generateToken(Authentication authentication) {
@@ -48,33 +83,81 @@ public class JwtTokenProvider {
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Verifies the token once and returns its claims. Successful verifications
+     * are cached until the token expires, so repeated requests with the same
+     * token skip the HMAC check and JSON parsing.
+     */
+    public Optional<VerifiedToken> verifyToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+
+        long now = System.currentTimeMillis();
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return Optional.of(cached);
+            }
+            verifiedTokens.remove(digest, cached);
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+
+        // Tokens without an expiration are still accepted, but never cached
+        Date expiration = claims.getExpiration();
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                claims.get("roles", String.class),
+                expiration != null ? expiration.getTime() : Long.MAX_VALUE);
 
-        return claims.getSubject();
+        if (expiration != null) {
+            cache(digest, verified, now);
+        }
+        return Optional.of(verified);
+    }
+
+    public String getUsernameFromToken(String token) {
+        return getClaimsFromToken(token).getSubject();
     }
 
     public Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
+            parser.parseSignedClaims(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
+
+    private void cache(String digest, VerifiedToken verified, long now) {
+        if (verifiedTokens.size() >= cacheMaxSize) {
+            verifiedTokens.values().removeIf(entry -> entry.isExpired(now));
+            if (verifiedTokens.size() >= cacheMaxSize) {
+                // Still full of live tokens: skip caching rather than grow unbounded
+                return;
+            }
+        }
+        verifiedTokens.put(digest, verified);
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
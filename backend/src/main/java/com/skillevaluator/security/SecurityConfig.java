@@ -12,7 +12,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -33,9 +32,22 @@ public class SecurityConfig {
     @Value("${cors.allowed-origins}")
     private String allowedOrigins;
 
+    @Value("${security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    @Value("${security.password-hashing.pool-size:0}")
+    private int hashingPoolSize;
+
+    @Value("${security.password-hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+
+    @Value("${security.password-hashing.timeout-ms:5000}")
+    private long hashingTimeoutMs;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int poolSize = hashingPoolSize > 0 ? hashingPoolSize : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(bcryptStrength, poolSize, hashingQueueCapacity, hashingTimeoutMs);
     }
 
     @Autowired
@@ -46,6 +58,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Rehash stored passwords on login when the configured BCrypt cost changes
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -62,10 +76,14 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Streaming responses complete on an async dispatch; the original request was already authorized
+                        .dispatcherTypeMatchers(jakarta.servlet.DispatcherType.ASYNC).permitAll()
+
                         // Public endpoints
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/public/**").permitAll()
-                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/info", "/actuator/prometheus").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
 
                         // Admin only endpoints
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
@@ -0,0 +1,101 @@
+package com.skillevaluator.security;
+
+import com.skillevaluator.model.Role;
+import com.skillevaluator.model.User;
+import com.skillevaluator.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size- and time-bounded cache of the users behind authenticated requests, so
+ * the JWT filter only hits the database on a miss. Entries are immutable
+ * snapshots; every lookup hands out a fresh detached {@link User} so callers
+ * cannot corrupt the cached state.
+ */
+@Component
+public class UserPrincipalCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${security.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${security.principal-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final ConcurrentHashMap<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    // Bumped on every eviction so a load that raced with an admin update is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private record Snapshot(Long id, String username, String email, Role role, boolean enabled,
+            boolean accountNonExpired, boolean accountNonLocked, boolean credentialsNonExpired,
+            long loadedAtNanos) {
+
+        static Snapshot of(User user, long now) {
+            return new Snapshot(user.getId(), user.getUsername(), user.getEmail(), user.getRole(),
+                    user.isEnabled(), user.isAccountNonExpired(), user.isAccountNonLocked(),
+                    user.isCredentialsNonExpired(), now);
+        }
+
+        User toUser() {
+            User user = new User();
+            user.setId(id);
+            user.setUsername(username);
+            user.setEmail(email);
+            user.setRole(role);
+            user.setEnabled(enabled);
+            user.setAccountNonExpired(accountNonExpired);
+            user.setAccountNonLocked(accountNonLocked);
+            user.setCredentialsNonExpired(credentialsNonExpired);
+            return user;
+        }
+    }
+
+    public Optional<User> getByUsername(String username) {
+        long now = System.nanoTime();
+        Snapshot cached = snapshots.get(username);
+        if (cached != null && now - cached.loadedAtNanos() < TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+            return Optional.of(cached.toUser());
+        }
+
+        long loadGeneration = generation.get();
+        Optional<User> user = userRepository.findByUsername(username);
+        if (user.isEmpty()) {
+            snapshots.remove(username);
+            return Optional.empty();
+        }
+
+        Snapshot snapshot = Snapshot.of(user.get(), now);
+        if (hasRoomFor(username, now) && generation.get() == loadGeneration) {
+            snapshots.put(username, snapshot);
+        }
+        return Optional.of(snapshot.toUser());
+    }
+
+    public void evict(String username) {
+        generation.incrementAndGet();
+        snapshots.remove(username);
+    }
+
+    public void evictAll() {
+        generation.incrementAndGet();
+        snapshots.clear();
+    }
+
+    private boolean hasRoomFor(String username, long now) {
+        if (snapshots.size() < maxSize || snapshots.containsKey(username)) {
+            return true;
+        }
+        long ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        snapshots.values().removeIf(s -> now - s.loadedAtNanos() >= ttlNanos);
+        return snapshots.size() < maxSize;
+    }
+}
@@ -0,0 +1,711 @@
+package com.skillevaluator.service;
+
+import com.skillevaluator.model.Difficulty;
+import com.skillevaluator.model.Question;
+import com.skillevaluator.model.TestSession;
+import com.skillevaluator.repository.QuestionRepository;
+import com.skillevaluator.repository.TestSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
+
+/**
+ * Delivers adaptive tests one question at a time. Each answer updates the
+ * candidate's ability estimate, and the next question is the one of the
+ * test's skills that is most informative at that estimate. Questions follow
+ * the two-parameter logistic model of
+ * {@link com.skillevaluator.model.ItemParameters}; a question that has not
+ * been calibrated yet gets discrimination 1 and a difficulty from its
+ * declared level.
+ *
+ * The bank is held in memory per skill, sorted by item difficulty, so a pick
+ * scans outward from the estimate and stops as soon as no farther question
+ * can beat the ones found; the only query per step loads the next question
+ * to show. Ability is the posterior mean (EAP) over a fixed grid with a
+ * standard normal prior. A session ends at the test's question limit, once
+ * the estimate is precise enough, or when its skills run out of questions.
+ *
+ * The bank is a {@link ReloadableQuestionIndex}, like
+ * {@link QuestionSampler}, that calibration also reloads. Session state lives here as well and is rebuilt
+ * from the autosaved answers when missing: the question on screen is
+ * autosaved with an empty answer, so it also counts (as wrong) if time runs
+ * out before it is answered.
+ */
+@Service
+public class AdaptiveTestEngine extends ReloadableQuestionIndex<AdaptiveTestEngine.Bank> {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveTestEngine.class);
+
+    /** Adaptive sessions are scored as the ability percentile, out of this many points. */
+    public static final int MAX_SCORE = 100;
+
+    private static final String LOAD_SQL = "SELECT q.id, q.skill, q.difficulty, p.discrimination, "
+            + "p.difficulty AS location FROM questions q LEFT JOIN question_item_params p ON p.question_id = q.id";
+
+    // Parameters assumed for questions without calibrated ones; difficulty by declared level
+    private static final double PRIOR_DISCRIMINATION = 1.0;
+    private static final double[] PRIOR_LOCATION = { -1.0, 0.0, 1.0 };
+
+    // A pick stops looking after this many questions even if farther ones could still be better
+    private static final int MAX_SCAN = 4096;
+
+    // Quadrature grid of the ability posterior
+    private static final double[] THETA = new double[81];
+    private static final double[] LOG_PRIOR = new double[THETA.length];
+
+    // a^2 P (1 - P) at distance d is x^2 P (1 - P) / d^2 with x = a d, which peaks at x = PEAK_X
+    private static final double PEAK_X = 2.3994;
+    private static final double PEAK_INFORMATION;
+
+    static {
+        for (int i = 0; i < THETA.length; i++) {
+            THETA[i] = -4.0 + i * 0.1;
+            LOG_PRIOR[i] = -THETA[i] * THETA[i] / 2;
+        }
+        double p = logistic(PEAK_X);
+        PEAK_INFORMATION = PEAK_X * PEAK_X * p * (1 - p);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private TestSessionRepository testSessionRepository;
+
+    @Autowired
+    private ExamSnapshotCache examSnapshotCache;
+
+    @Autowired
+    private AnswerAutosaveService answerAutosaveService;
+
+    // Completing a session goes through TestService, which asks this engine for the final estimate
+    @Autowired
+    @Lazy
+    private TestService testService;
+
+    @Value("${exam.adaptive.max-items:20}")
+    private int defaultMaxItems;
+
+    @Value("${exam.adaptive.min-items:5}")
+    private int minItems;
+
+    @Value("${exam.adaptive.target-standard-error:0.3}")
+    private double targetStandardError;
+
+    @Value("${exam.adaptive.exposure-candidates:5}")
+    private int exposureCandidates;
+
+    private final Map<Long, SessionState> sessions = new ConcurrentHashMap<>();
+
+    public enum Status {
+        NEXT, DONE, NOT_FOUND, FORBIDDEN, NOT_ADAPTIVE, CONFLICT, CLOSED, BUSY, TOO_LARGE
+    }
+
+    /** Outcome of a start or an answer, with the response body for NEXT and DONE. */
+    public record Step(Status status, Map<String, Object> body) {
+    }
+
+    /** Ability estimate from a set of answers: posterior mean and standard deviation. */
+    public record Estimate(double theta, double standardError, int items) {
+
+        /** The ability percentile in the N(0, 1) population, out of {@link #MAX_SCORE}. */
+        public int score() {
+            return (int) Math.round(MAX_SCORE * normalCdf(theta));
+        }
+    }
+
+    private record Item(long id, int skill, double a, double b, boolean calibrated) {
+    }
+
+    private record Pick(Item item, int skill) {
+    }
+
+    private record Entry(long id, String skill, Difficulty difficulty) {
+    }
+
+    public AdaptiveTestEngine() {
+        super("Adaptive item bank", new Bank());
+    }
+
+    @Scheduled(initialDelayString = "${exam.adaptive.refresh-interval-ms:600000}",
+            fixedDelayString = "${exam.adaptive.refresh-interval-ms:600000}")
+    void refresh() {
+        rebuild();
+    }
+
+    /** Loads the current questions with their calibrated parameters. */
+    @Override
+    protected Bank load() {
+        Bank fresh = new Bank();
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            double a = rs.getDouble("discrimination");
+            if (rs.wasNull()) {
+                fresh.append(rs.getLong("id"), rs.getString("skill"),
+                        Difficulty.valueOf(rs.getString("difficulty")));
+            } else {
+                fresh.append(rs.getLong("id"), rs.getString("skill"), a, rs.getDouble("location"));
+            }
+        });
+        fresh.sort();
+        return fresh;
+    }
+
+    @Override
+    protected void loaded(Bank fresh, long millis) {
+        long calibrated = fresh.items.values().stream().filter(Item::calibrated).count();
+        log.info("Loaded {} adaptive items ({} calibrated) in {} ms", fresh.items.size(), calibrated, millis);
+    }
+
+    /** Files the questions under their current skill, keeping calibrated parameters they already have. */
+    @Override
+    public void put(Collection<Question> questions) {
+        List<Entry> entries = questions.stream()
+                .map(question -> new Entry(question.getId(), question.getSkill(), question.getDifficulty()))
+                .toList();
+        write(target -> entries.forEach(entry -> target.put(entry.id(), entry.skill(), entry.difficulty())));
+    }
+
+    @Override
+    public void remove(Collection<Long> ids) {
+        List<Long> removed = List.copyOf(ids);
+        write(target -> removed.forEach(target::remove));
+    }
+
+    /**
+     * The question on screen for a session that was just started or resumed,
+     * picking the first one if none has been asked yet.
+     *
+     * @throws IllegalStateException while the bank is still loading
+     */
+    public Step resume(ExamSnapshot snapshot, TestSession session, long candidateId) {
+        checkReady();
+        SessionState state = sessions.computeIfAbsent(session.getId(), id -> restore(id, candidateId,
+                session.getExpiresAt(), session.getAnswers(), snapshot));
+        synchronized (state) {
+            if (state.finished) {
+                return new Step(Status.CLOSED, Map.of());
+            }
+            if (state.pendingId != null) {
+                Optional<Question> pending = questionRepository.findById(state.pendingId);
+                if (pending.isPresent()) {
+                    return new Step(Status.NEXT, questionBody(state, pending.get()));
+                }
+                state.pendingId = null;
+            }
+            return next(state, state.estimate());
+        }
+    }
+
+    /**
+     * Records the answer to the question on screen and moves on: the next
+     * question, or the completed session once a stopping rule is met.
+     *
+     * @throws IllegalStateException while the bank is still loading
+     */
+    public Step answer(long sessionId, long candidateId, long questionId, String answer) {
+        checkReady();
+        SessionState state = sessions.get(sessionId);
+        if (state == null) {
+            Optional<TestSession> found = testSessionRepository.findAllWithTestByIdIn(List.of(sessionId)).stream()
+                    .findFirst();
+            if (found.isEmpty()) {
+                return new Step(Status.NOT_FOUND, Map.of());
+            }
+            TestSession session = found.get();
+            if (!session.getCandidate().getId().equals(candidateId)) {
+                return new Step(Status.FORBIDDEN, Map.of());
+            }
+            if (!Boolean.TRUE.equals(session.getTest().getAdaptive())) {
+                return new Step(Status.NOT_ADAPTIVE, Map.of());
+            }
+            if (session.getIsCompleted() || session.getExpiresAt().isBefore(LocalDateTime.now())) {
+                return new Step(Status.CLOSED, Map.of());
+            }
+            ExamSnapshot snapshot = examSnapshotCache.get(session.getTest().getId());
+            state = sessions.computeIfAbsent(sessionId, id -> restore(id, candidateId, session.getExpiresAt(),
+                    session.getAnswers(), snapshot));
+        }
+        if (state.candidateId != candidateId) {
+            return new Step(Status.FORBIDDEN, Map.of());
+        }
+
+        synchronized (state) {
+            if (state.finished || state.expiresAt.isBefore(LocalDateTime.now())) {
+                return new Step(Status.CLOSED, Map.of());
+            }
+            if (state.pendingId == null || state.pendingId != questionId) {
+                return new Step(Status.CONFLICT, Map.of());
+            }
+            Status saved = autosave(state, questionId, answer);
+            if (saved != null) {
+                return new Step(saved, Map.of());
+            }
+
+            update(state.logPosterior, state.pendingA, state.pendingB,
+                    AnswerKey.matches(state.pendingAnswer, answer));
+            state.answered++;
+            state.pendingId = null;
+
+            Estimate estimate = state.estimate();
+            if (state.answered >= state.maxItems
+                    || state.answered >= minItems && estimate.standardError() <= targetStandardError) {
+                return finish(state, estimate);
+            }
+            return next(state, estimate);
+        }
+    }
+
+    // Puts the most informative question on screen, or completes the session if there is none left
+    private Step next(SessionState state, Estimate estimate) {
+        while (true) {
+            Pick pick = read(bank -> select(bank, state, estimate.theta()));
+            if (pick == null) {
+                return state.answered == 0 ? new Step(Status.CLOSED, Map.of()) : finish(state, estimate);
+            }
+            state.administered.add(pick.item().id());
+            Optional<Question> question = questionRepository.findById(pick.item().id());
+            if (question.isEmpty()) {
+                // Deleted through another instance since the last reload
+                continue;
+            }
+            Status saved = autosave(state, pick.item().id(), "");
+            if (saved != null) {
+                state.administered.remove(pick.item().id());
+                return new Step(saved, Map.of());
+            }
+            state.asked[pick.skill()]++;
+            state.pendingId = pick.item().id();
+            state.pendingA = pick.item().a();
+            state.pendingB = pick.item().b();
+            state.pendingAnswer = trimmed(question.get().getCorrectAnswer());
+            return new Step(Status.NEXT, questionBody(state, question.get()));
+        }
+    }
+
+    private Step finish(SessionState state, Estimate estimate) {
+        state.finished = true;
+        sessions.remove(state.sessionId);
+        TestSession completed;
+        try {
+            completed = testService.completeAdaptiveSession(state.sessionId);
+        } catch (RuntimeException e) {
+            // Completed meanwhile, by a submit or the expiry sweep
+            log.debug("Adaptive session {} could not be completed", state.sessionId, e);
+            return new Step(Status.CLOSED, Map.of());
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("sessionId", state.sessionId);
+        body.put("done", true);
+        body.put("answered", state.answered);
+        body.put("score", completed.getScore());
+        body.put("totalPoints", completed.getTotalPoints());
+        body.put("standardError", Math.round(estimate.standardError() * 1000) / 1000.0);
+        return new Step(Status.DONE, body);
+    }
+
+    private Map<String, Object> questionBody(SessionState state, Question question) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("sessionId", state.sessionId);
+        body.put("answered", state.answered);
+        body.put("maxItems", state.maxItems);
+        body.put("question", ExamSnapshot.view(question));
+        return body;
+    }
+
+    // Null once saved, otherwise why the autosave refused it
+    private Status autosave(SessionState state, long questionId, String answer) {
+        AnswerAutosaveService.SaveResult result = answerAutosaveService.saveAdministered(state.sessionId,
+                state.candidateId, questionId, answer);
+        return switch (result.status()) {
+            case SAVED -> null;
+            case NOT_FOUND -> Status.NOT_FOUND;
+            case FORBIDDEN -> Status.FORBIDDEN;
+            case CLOSED -> Status.CLOSED;
+            case BUSY -> Status.BUSY;
+            case TOO_LARGE -> Status.TOO_LARGE;
+            case ADAPTIVE, UNKNOWN_QUESTION -> Status.NOT_ADAPTIVE;
+        };
+    }
+
+    /**
+     * Ability estimate from a session's answers, scored against the given
+     * questions with the bank's current parameters. An empty answer counts as
+     * wrong.
+     */
+    public Estimate estimate(List<Question> questions, Map<Long, String> answers) {
+        double[] logPosterior = LOG_PRIOR.clone();
+        int items = read(bank -> {
+            int n = 0;
+            for (Question question : questions) {
+                String answer = answers.get(question.getId());
+                if (answer == null) {
+                    continue;
+                }
+                Item item = bank.itemOf(question);
+                update(logPosterior, item.a(), item.b(), AnswerKey.matches(trimmed(question.getCorrectAnswer()),
+                        answer));
+                n++;
+            }
+            return n;
+        });
+        return estimate(logPosterior, items);
+    }
+
+    // Replays the autosaved answers of a session this instance has no state for
+    private SessionState restore(long sessionId, long candidateId, LocalDateTime expiresAt, String storedAnswers,
+            ExamSnapshot snapshot) {
+        int maxItems = snapshot.getAdaptiveItems() > 0 ? snapshot.getAdaptiveItems() : defaultMaxItems;
+        SessionState state = new SessionState(sessionId, candidateId, expiresAt,
+                snapshot.getAdaptiveSkills().toArray(String[]::new), maxItems);
+        Map<Long, String> answers = answerAutosaveService.savedAnswers(sessionId, storedAnswers);
+        if (answers.isEmpty()) {
+            return state;
+        }
+        List<Question> questions = questionRepository.findAllById(answers.keySet());
+        read(bank -> {
+            for (Question question : questions) {
+                String answer = answers.get(question.getId());
+                if (answer == null) {
+                    continue;
+                }
+                Item item = bank.itemOf(question);
+                state.administered.add(question.getId());
+                int skill = Arrays.asList(state.skills).indexOf(question.getSkill());
+                if (skill >= 0) {
+                    state.asked[skill]++;
+                }
+                if (answer.isEmpty()) {
+                    state.pendingId = question.getId();
+                    state.pendingA = item.a();
+                    state.pendingB = item.b();
+                    state.pendingAnswer = trimmed(question.getCorrectAnswer());
+                } else {
+                    update(state.logPosterior, item.a(), item.b(),
+                            AnswerKey.matches(trimmed(question.getCorrectAnswer()), answer));
+                    state.answered++;
+                }
+            }
+            return null;
+        });
+        return state;
+    }
+
+    private Pick select(Bank bank, SessionState state, double theta) {
+        // Content balancing: the skill asked least so far goes first, in the test's order on ties
+        Integer[] order = new Integer[state.skills.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> state.asked[i]));
+
+        // Seeded by session and position, so a retried step offers the same question
+        RandomGenerator random = new SplittableRandom(state.sessionId * 1_000_003L + state.administered.size());
+        for (int skill : order) {
+            SkillItems items = bank.skill(state.skills[skill]);
+            Item item = items == null ? null
+                    : items.mostInformative(theta, state.administered, Math.max(1, exposureCandidates), random);
+            if (item != null) {
+                return new Pick(item, skill);
+            }
+        }
+        return null;
+    }
+
+    // Sessions that ran out of time are completed by the expiry sweep; their state is dropped here
+    @Scheduled(fixedDelayString = "${exam.adaptive.sweep-interval-ms:60000}")
+    void evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        sessions.values().removeIf(state -> state.expiresAt.isBefore(now));
+    }
+
+    private static void update(double[] logPosterior, double a, double b, boolean correct) {
+        for (int i = 0; i < THETA.length; i++) {
+            double p = logistic(a * (THETA[i] - b));
+            logPosterior[i] += Math.log(correct ? p : 1 - p);
+        }
+    }
+
+    private static Estimate estimate(double[] logPosterior, int items) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (double value : logPosterior) {
+            max = Math.max(max, value);
+        }
+        double weight = 0;
+        double sum = 0;
+        double sumOfSquares = 0;
+        for (int i = 0; i < THETA.length; i++) {
+            double w = Math.exp(logPosterior[i] - max);
+            weight += w;
+            sum += w * THETA[i];
+            sumOfSquares += w * THETA[i] * THETA[i];
+        }
+        double mean = sum / weight;
+        return new Estimate(mean, Math.sqrt(Math.max(0, sumOfSquares / weight - mean * mean)), items);
+    }
+
+    private static double information(Item item, double theta) {
+        double p = logistic(item.a() * (theta - item.b()));
+        return item.a() * item.a() * p * (1 - p);
+    }
+
+    // Most information any question with discrimination up to maxA can give at this distance from theta
+    private static double informationBound(double maxA, double distance) {
+        double x = maxA * distance;
+        if (x >= PEAK_X) {
+            return PEAK_INFORMATION / (distance * distance);
+        }
+        double p = logistic(x);
+        return maxA * maxA * p * (1 - p);
+    }
+
+    private static double logistic(double x) {
+        return 1 / (1 + Math.exp(-x));
+    }
+
+    // Zelen and Severo's approximation, accurate to about 1e-7
+    static double normalCdf(double x) {
+        double t = 1 / (1 + 0.2316419 * Math.abs(x));
+        double density = Math.exp(-x * x / 2) / Math.sqrt(2 * Math.PI);
+        double tail = density * t * (0.319381530 + t * (-0.356563782 + t * (1.781477937
+                + t * (-1.821255978 + t * 1.330274429))));
+        return x >= 0 ? 1 - tail : tail;
+    }
+
+    // Inverse of normalCdf by bisection; only used off the request path
+    static double normalQuantile(double p) {
+        double lo = -8;
+        double hi = 8;
+        for (int i = 0; i < 60; i++) {
+            double mid = (lo + hi) / 2;
+            if (normalCdf(mid) < p) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return (lo + hi) / 2;
+    }
+
+    private static String trimmed(String answer) {
+        return answer == null ? null : answer.trim();
+    }
+
+    private static final class SessionState {
+        final long sessionId;
+        final long candidateId;
+        final LocalDateTime expiresAt;
+        final String[] skills;
+        final int[] asked;
+        final int maxItems;
+        final double[] logPosterior = LOG_PRIOR.clone();
+        final Set<Long> administered = new HashSet<>();
+        int answered;
+        // The question on screen, with what scoring its answer needs
+        Long pendingId;
+        double pendingA;
+        double pendingB;
+        String pendingAnswer;
+        boolean finished;
+
+        SessionState(long sessionId, long candidateId, LocalDateTime expiresAt, String[] skills, int maxItems) {
+            this.sessionId = sessionId;
+            this.candidateId = candidateId;
+            this.expiresAt = expiresAt;
+            this.skills = skills;
+            this.asked = new int[skills.length];
+            this.maxItems = maxItems;
+        }
+
+        Estimate estimate() {
+            return AdaptiveTestEngine.estimate(logPosterior, answered);
+        }
+    }
+
+    static final class Bank {
+        final Map<String, Integer> skillIndex = new HashMap<>();
+        final List<SkillItems> skills = new ArrayList<>();
+        final Map<Long, Item> items = new HashMap<>();
+
+        SkillItems skill(String name) {
+            Integer index = skillIndex.get(name);
+            return index == null ? null : skills.get(index);
+        }
+
+        private int skillOf(String name) {
+            return skillIndex.computeIfAbsent(name, s -> {
+                skills.add(new SkillItems());
+                return skills.size() - 1;
+            });
+        }
+
+        // Bulk load: appended unsorted, then sorted once
+        void append(long id, String skill, Difficulty difficulty) {
+            append(new Item(id, skillOf(skill), PRIOR_DISCRIMINATION, PRIOR_LOCATION[difficulty.ordinal()], false));
+        }
+
+        void append(long id, String skill, double a, double b) {
+            append(new Item(id, skillOf(skill), a, b, true));
+        }
+
+        private void append(Item item) {
+            items.put(item.id(), item);
+            skills.get(item.skill()).append(item);
+        }
+
+        void sort() {
+            skills.forEach(SkillItems::sort);
+        }
+
+        void put(long id, String skill, Difficulty difficulty) {
+            Item previous = remove(id);
+            boolean calibrated = previous != null && previous.calibrated();
+            Item item = new Item(id, skillOf(skill), calibrated ? previous.a() : PRIOR_DISCRIMINATION,
+                    calibrated ? previous.b() : PRIOR_LOCATION[difficulty.ordinal()], calibrated);
+            items.put(id, item);
+            skills.get(item.skill()).insert(item);
+        }
+
+        Item remove(long id) {
+            Item item = items.remove(id);
+            if (item != null) {
+                skills.get(item.skill()).remove(item);
+            }
+            return item;
+        }
+
+        // Parameters of a question, with the prior ones if it is not in the bank
+        Item itemOf(Question question) {
+            Item item = items.get(question.getId());
+            return item != null ? item
+                    : new Item(question.getId(), -1, PRIOR_DISCRIMINATION,
+                            PRIOR_LOCATION[question.getDifficulty().ordinal()], false);
+        }
+    }
+
+    /** The items of one skill, sorted by difficulty (then id). */
+    private static final class SkillItems {
+        static final Comparator<Item> ORDER = Comparator.comparingDouble(Item::b).thenComparingLong(Item::id);
+
+        Item[] byLocation = new Item[16];
+        int size;
+        // Only ever raised between rebuilds, so it stays an upper bound
+        double maxA;
+
+        void append(Item item) {
+            if (size == byLocation.length) {
+                byLocation = Arrays.copyOf(byLocation, size * 2);
+            }
+            byLocation[size++] = item;
+            maxA = Math.max(maxA, item.a());
+        }
+
+        void sort() {
+            Arrays.sort(byLocation, 0, size, ORDER);
+        }
+
+        void insert(Item item) {
+            int at = -Arrays.binarySearch(byLocation, 0, size, item, ORDER) - 1;
+            if (size == byLocation.length) {
+                byLocation = Arrays.copyOf(byLocation, size * 2);
+            }
+            System.arraycopy(byLocation, at, byLocation, at + 1, size - at);
+            byLocation[at] = item;
+            size++;
+            maxA = Math.max(maxA, item.a());
+        }
+
+        void remove(Item item) {
+            int at = Arrays.binarySearch(byLocation, 0, size, item, ORDER);
+            if (at >= 0) {
+                System.arraycopy(byLocation, at + 1, byLocation, at, size - at - 1);
+                byLocation[--size] = null;
+            }
+        }
+
+        /**
+         * One of the {@code candidates} most informative items at theta that
+         * are not excluded, chosen at random so the very best items are not
+         * shown to everyone of similar ability.
+         */
+        Item mostInformative(double theta, Set<Long> excluded, int candidates, RandomGenerator random) {
+            Item[] best = new Item[candidates];
+            double[] bestInformation = new double[candidates];
+            int found = 0;
+            int weakest = 0;
+
+            int hi = lowerBound(theta);
+            int lo = hi - 1;
+            for (int scanned = 0; (lo >= 0 || hi < size) && scanned < MAX_SCAN; ) {
+                double below = lo >= 0 ? theta - byLocation[lo].b() : Double.POSITIVE_INFINITY;
+                double above = hi < size ? byLocation[hi].b() - theta : Double.POSITIVE_INFINITY;
+                // Items only get farther from here; stop once none of them can make the shortlist
+                if (found == candidates
+                        && informationBound(maxA, Math.min(below, above)) <= bestInformation[weakest]) {
+                    break;
+                }
+                Item item = below <= above ? byLocation[lo--] : byLocation[hi++];
+                if (excluded.contains(item.id())) {
+                    continue;
+                }
+                scanned++;
+                double information = information(item, theta);
+                if (found < candidates) {
+                    best[found] = item;
+                    bestInformation[found++] = information;
+                } else if (information > bestInformation[weakest]) {
+                    best[weakest] = item;
+                    bestInformation[weakest] = information;
+                } else {
+                    continue;
+                }
+                if (found == candidates) {
+                    for (int i = 0; i < candidates; i++) {
+                        if (bestInformation[i] < bestInformation[weakest]) {
+                            weakest = i;
+                        }
+                    }
+                }
+            }
+            return found == 0 ? null : best[random.nextInt(found)];
+        }
+
+        // First position whose difficulty is at least theta
+        private int lowerBound(double theta) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (byLocation[mid].b() < theta) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -5,6 +5,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.skillevaluator.model.Difficulty;
 import com.skillevaluator.model.Question;
 import com.skillevaluator.model.QuestionType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -20,24 +25,25 @@ import java.util.Map;
 @Service
 public class AiService {
 
+    private static final Logger log = LoggerFactory.getLogger(AiService.class);
+
     @Value("${gemini.api.key}")
     private String apiKey;
 
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
 
     private static final String GEMINI_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-1.5-flash-latest:generateContent?key=";
 
-    public AiService(RestTemplate restTemplate, ObjectMapper objectMapper) {
+    public AiService(RestTemplate restTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
         this.restTemplate = restTemplate;
         this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
     }
 
     public List<Question> generateQuestions(String skill, String difficulty, int count) {
-        System.out.println("AI: Generating " + count + " questions for " + skill + " (" + difficulty + ")");
-        System.out.println("AI: Using URL: " + GEMINI_URL);
-        System.out.println("AI: API Key loaded: "
-                + (apiKey != null && !apiKey.isEmpty() ? (apiKey.substring(0, 5) + "...") : "NULL/EMPTY"));
+        log.info("Generating {} questions for {} ({})", count, skill, difficulty);
 
         String prompt = String.format(
                 "Generate exactly %d challenging and practical technical multiple-choice questions for the skill '%s' with difficulty level '%s'. "
@@ -68,7 +74,15 @@ public class AiService {
             headers.setContentType(MediaType.APPLICATION_JSON);
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
 
-            String response = restTemplate.postForObject(GEMINI_URL + apiKey, entity, String.class);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String response;
+            try {
+                response = restTemplate.postForObject(GEMINI_URL + apiKey, entity, String.class);
+                sample.stop(geminiTimer("success"));
+            } catch (RuntimeException e) {
+                sample.stop(geminiTimer("error"));
+                throw e;
+            }
             JsonNode root = objectMapper.readTree(response);
             String jsonText = root.path("candidates").get(0).path("content").path("parts").get(0).path("text").asText();
 
@@ -84,7 +98,7 @@ public class AiService {
             }
             jsonText = jsonText.trim();
 
-            System.out.println("AI Response JSON: " + jsonText); // Debug logging
+            log.debug("AI response JSON: {}", jsonText);
 
             JsonNode questionsNode = objectMapper.readTree(jsonText);
             List<Question> questions = new ArrayList<>();
@@ -107,15 +121,31 @@ public class AiService {
 
         } catch (org.springframework.web.client.HttpClientErrorException
                 | org.springframework.web.client.HttpServerErrorException e) {
-            System.err.println("AI API HTTP Error: " + e.getStatusCode() + " " + e.getResponseBodyAsString());
+            log.warn("AI API HTTP error: {} {}", e.getStatusCode(), e.getResponseBodyAsString());
+            fallbackCounter("http_error").increment();
             return generateMockQuestions(skill, difficulty, count);
         } catch (Exception e) {
-            System.err.println("Error generating questions with AI: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error generating questions with AI", e);
+            fallbackCounter("error").increment();
             return generateMockQuestions(skill, difficulty, count);
         }
     }
 
+    private Timer geminiTimer(String outcome) {
+        return Timer.builder("ai.gemini.requests")
+                .description("Latency of Gemini generateContent calls")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Counter fallbackCounter(String reason) {
+        return Counter.builder("ai.gemini.fallbacks")
+                .description("Question generations served by the mock fallback")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
     private List<Question> generateMockQuestions(String skill, String difficulty, int count) {
         List<Question> questions = new ArrayList<>();
         Difficulty diffEnum = Difficulty.valueOf(difficulty.toUpperCase());
@@ -0,0 +1,336 @@
+package com.skillevaluator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillevaluator.model.TextAnswer;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for answers autosaved during an exam. Each in-progress
+ * session that receives deltas gets an in-memory working copy of its answer
+ * map with a version bumped per delta; a scheduled task writes all dirty
+ * copies in one JDBC batch. The update only applies to an open session whose
+ * stored {@code answers_version} is older, so a retried or late flush can
+ * never overwrite newer answers or a submitted session.
+ *
+ * Acknowledged answers reach the database within one flush interval (plus
+ * the time the flush itself takes); that is what a crash of this node can lose.
+ *
+ * Deltas are checked before they are buffered: question ids must belong to
+ * the test's answer key, and the serialized answers must fit the
+ * {@code answers} column, so a flush cannot fail on a single session's data.
+ */
+@Service
+public class AnswerAutosaveService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnswerAutosaveService.class);
+
+    private static final String LOAD_SQL = "SELECT s.candidate_id, s.test_id, t.adaptive, s.expires_at, s.is_completed, "
+            + "s.answers, s.answers_version FROM test_sessions s JOIN tests t ON t.id = s.test_id WHERE s.id = ?";
+
+    private static final String FLUSH_SQL = "UPDATE test_sessions SET answers = ?, answers_version = ? "
+            + "WHERE id = ? AND is_completed = false AND (answers_version IS NULL OR answers_version < ?)";
+
+    private static final TypeReference<Map<Long, String>> ANSWERS = new TypeReference<>() {
+    };
+
+    public enum Status {
+        SAVED, NOT_FOUND, FORBIDDEN, CLOSED, BUSY, UNKNOWN_QUESTION, TOO_LARGE, ADAPTIVE
+    }
+
+    public record SaveResult(Status status, long version) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Value("${exam.autosave.max-sessions:50000}")
+    private int maxSessions;
+
+    @Value("${exam.autosave.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    @Value("${exam.autosave.idle-eviction-ms:600000}")
+    private long idleEvictionMs;
+
+    @Value("${exam.autosave.max-answers-length:10000}")
+    private int maxAnswersLength;
+
+    private final ConcurrentHashMap<Long, WorkingCopy> copies = new ConcurrentHashMap<>();
+
+    private static final class WorkingCopy {
+        private final long sessionId;
+        private final long candidateId;
+        private final long testId;
+        private final boolean adaptive;
+        private final LocalDateTime expiresAt;
+        private final Map<Long, String> answers;
+        private String json;
+        private long version;
+        private long flushedVersion;
+        private long lastTouched = System.currentTimeMillis();
+        private boolean closed;
+
+        WorkingCopy(long sessionId, long candidateId, long testId, boolean adaptive, LocalDateTime expiresAt,
+                Map<Long, String> answers, long version) {
+            this.sessionId = sessionId;
+            this.candidateId = candidateId;
+            this.testId = testId;
+            this.adaptive = adaptive;
+            this.expiresAt = expiresAt;
+            this.answers = answers;
+            this.version = version;
+            this.flushedVersion = version;
+        }
+
+        // The new version, or 0 if an answer is too long to store or the merged answers would not fit in maxLength
+        synchronized long apply(Map<Long, String> delta, ObjectMapper objectMapper, int maxLength)
+                throws JsonProcessingException {
+            Map<Long, String> merged = new HashMap<>(answers);
+            for (Map.Entry<Long, String> answer : delta.entrySet()) {
+                if (answer.getKey() == null) {
+                    continue;
+                }
+                // A null answer clears the question
+                if (answer.getValue() == null) {
+                    merged.remove(answer.getKey());
+                } else if (answer.getValue().length() > TextAnswer.MAX_LENGTH) {
+                    return 0;
+                } else {
+                    merged.put(answer.getKey(), answer.getValue());
+                }
+            }
+            String mergedJson = objectMapper.writeValueAsString(merged);
+            if (mergedJson.length() > maxLength) {
+                return 0;
+            }
+            answers.clear();
+            answers.putAll(merged);
+            json = mergedJson;
+            lastTouched = System.currentTimeMillis();
+            return ++version;
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        synchronized Map<Long, String> answers() {
+            return new HashMap<>(answers);
+        }
+
+        synchronized boolean isOpen() {
+            return !closed && expiresAt.isAfter(LocalDateTime.now());
+        }
+
+        synchronized void close() {
+            closed = true;
+        }
+
+        synchronized PendingFlush pendingFlush() {
+            if (closed || version == flushedVersion) {
+                return null;
+            }
+            return new PendingFlush(this, json, version);
+        }
+
+        synchronized void markFlushed(long flushed) {
+            flushedVersion = Math.max(flushedVersion, flushed);
+        }
+
+        synchronized boolean isEvictable(long now, long idleMs) {
+            boolean clean = version == flushedVersion;
+            return closed || (clean && (now - lastTouched > idleMs || !expiresAt.isAfter(LocalDateTime.now())));
+        }
+    }
+
+    private record PendingFlush(WorkingCopy copy, String json, long version) {
+    }
+
+    /**
+     * Merges a partial answer map into the session's working copy. Only the
+     * owning candidate can save, only while the session is open, and only
+     * answers to the test's questions. Adaptive sessions are answered through
+     * {@link AdaptiveTestEngine}, which saves with {@link #saveAdministered}.
+     */
+    public SaveResult save(long sessionId, long candidateId, Map<Long, String> delta) {
+        return save(sessionId, candidateId, delta, false);
+    }
+
+    /** Saves the answer to a question the adaptive engine has just administered in the session. */
+    SaveResult saveAdministered(long sessionId, long candidateId, long questionId, String answer) {
+        return save(sessionId, candidateId, Map.of(questionId, answer), true);
+    }
+
+    private SaveResult save(long sessionId, long candidateId, Map<Long, String> delta, boolean administered) {
+        WorkingCopy copy = copies.get(sessionId);
+        if (copy == null) {
+            if (copies.size() >= maxSessions) {
+                return new SaveResult(Status.BUSY, 0);
+            }
+            List<WorkingCopy> loaded = jdbcTemplate.query(LOAD_SQL, (rs, row) -> {
+                Timestamp expiresAt = rs.getTimestamp("expires_at");
+                boolean completed = rs.getBoolean("is_completed");
+                long version = rs.getLong("answers_version");
+                WorkingCopy c = new WorkingCopy(sessionId, rs.getLong("candidate_id"), rs.getLong("test_id"),
+                        rs.getBoolean("adaptive"), expiresAt == null ? LocalDateTime.MIN : expiresAt.toLocalDateTime(),
+                        parse(rs.getString("answers")), version);
+                if (completed) {
+                    c.close();
+                }
+                return c;
+            }, sessionId);
+            if (loaded.isEmpty()) {
+                return new SaveResult(Status.NOT_FOUND, 0);
+            }
+            WorkingCopy raced = copies.putIfAbsent(sessionId, loaded.get(0));
+            copy = raced != null ? raced : loaded.get(0);
+        }
+
+        if (copy.candidateId != candidateId) {
+            return new SaveResult(Status.FORBIDDEN, 0);
+        }
+        if (!copy.isOpen()) {
+            return new SaveResult(Status.CLOSED, 0);
+        }
+        if (copy.adaptive != administered) {
+            return new SaveResult(Status.ADAPTIVE, 0);
+        }
+        if (delta == null) {
+            return new SaveResult(Status.SAVED, copy.version());
+        }
+        if (!administered) {
+            AnswerKey key = answerKeyCache.get(copy.testId);
+            for (Long questionId : delta.keySet()) {
+                if (questionId != null && !key.containsQuestion(questionId)) {
+                    return new SaveResult(Status.UNKNOWN_QUESTION, 0);
+                }
+            }
+        }
+        try {
+            long version = copy.apply(delta, objectMapper, maxAnswersLength);
+            return version == 0 ? new SaveResult(Status.TOO_LARGE, 0) : new SaveResult(Status.SAVED, version);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize answers", e);
+        }
+    }
+
+    /**
+     * Answers saved for the session so far, from the working copy if there is
+     * one and otherwise from the last flush. Used to restore a resumed exam.
+     */
+    public Map<Long, String> savedAnswers(long sessionId, String storedAnswers) {
+        WorkingCopy copy = copies.get(sessionId);
+        return copy != null ? copy.answers() : parse(storedAnswers);
+    }
+
+    /**
+     * The answers a submission should be scored on: everything autosaved,
+     * overridden by what the client submitted. Once the submitting transaction
+     * commits the working copy is closed, so later deltas are rejected.
+     */
+    public Map<Long, String> mergeForSubmit(long sessionId, String storedAnswers, Map<Long, String> submitted) {
+        Map<Long, String> merged = savedAnswers(sessionId, storedAnswers);
+        if (submitted != null) {
+            submitted.forEach((questionId, answer) -> {
+                if (questionId != null && answer != null) {
+                    merged.put(questionId, answer);
+                }
+            });
+        }
+
+        Runnable close = () -> {
+            WorkingCopy copy = copies.remove(sessionId);
+            if (copy != null) {
+                copy.close();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    close.run();
+                }
+            });
+        } else {
+            close.run();
+        }
+        return merged;
+    }
+
+    @Scheduled(fixedDelayString = "${exam.autosave.flush-interval-ms:2000}")
+    @Timed("exam.autosave.flush")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        List<PendingFlush> pending = new ArrayList<>();
+        for (WorkingCopy copy : copies.values()) {
+            PendingFlush flush = copy.pendingFlush();
+            if (flush != null) {
+                pending.add(flush);
+            } else if (copy.isEvictable(now, idleEvictionMs)) {
+                copies.remove(copy.sessionId, copy);
+            }
+        }
+
+        for (int from = 0; from < pending.size(); from += flushBatchSize) {
+            List<PendingFlush> chunk = pending.subList(from, Math.min(pending.size(), from + flushBatchSize));
+            List<Object[]> args = chunk.stream().map(AnswerAutosaveService::flushArgs).toList();
+            try {
+                jdbcTemplate.batchUpdate(FLUSH_SQL, args);
+                // Rows the guard skipped already hold these answers or belong to a submitted session
+                chunk.forEach(flush -> flush.copy().markFlushed(flush.version()));
+            } catch (DataAccessException batchFailure) {
+                // Retry one by one so a single bad row does not hold back the rest of the batch
+                for (PendingFlush flush : chunk) {
+                    try {
+                        jdbcTemplate.update(FLUSH_SQL, flushArgs(flush));
+                        flush.copy().markFlushed(flush.version());
+                    } catch (DataAccessException e) {
+                        // Left dirty; the next flush retries with whatever version is current then
+                        log.warn("Autosave flush of session {} failed", flush.copy().sessionId, e);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Object[] flushArgs(PendingFlush flush) {
+        return new Object[] { flush.json(), flush.version(), flush.copy().sessionId, flush.version() };
+    }
+
+    private Map<Long, String> parse(String json) {
+        if (json == null || json.isBlank()) {
+            return new HashMap<>();
+        }
+        try {
+            return new HashMap<>(objectMapper.readValue(json, ANSWERS));
+        } catch (JsonProcessingException e) {
+            return new HashMap<>();
+        }
+    }
+}
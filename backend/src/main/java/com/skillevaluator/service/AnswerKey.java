@@ -0,0 +1,500 @@
+package com.skillevaluator.service;
+
+import com.skillevaluator.model.Question;
+import com.skillevaluator.model.QuestionType;
+import com.skillevaluator.model.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiled answer key of a test: question ids sorted for binary search, with
+ * trimmed correct answers, points and skill indices in parallel arrays.
+ * Scoring a submission is a single pass over the submitted answers and never
+ * touches the question entities.
+ *
+ * The key also defines the compact stored form of a submission: answers
+ * sorted by question id, each written as the varint id delta and a varint
+ * choice code, where code {@code k > 0} is the question's {@code k-1}th
+ * choice (option letter, option text, or true/false) and {@code 0} means
+ * free text kept beside the blob. Each choice code is followed by the
+ * choice's text, so a blob decodes the same whatever happened to the test
+ * since: questions removed from it and options edited or removed keep their
+ * answers. The code only lets scoring skip the string comparison while the
+ * choice is still where it was.
+ *
+ * Blobs written before the text was stored resolve codes against the
+ * current key: format 2 only while the choice at that position still has
+ * the stored 16-bit hash, format 1 by position alone.
+ */
+public final class AnswerKey {
+
+    private final long testId;
+    private final long[] questionIds;
+    private final String[] correctAnswers;
+    private final int[] points;
+    private final int[] skillIndex;
+    private final String[] skills;
+    private final int[] skillMaxPoints;
+    private final String[][] choices;
+    private final byte[][][] choiceBytes;
+    private final boolean[][] correctChoices;
+
+    static final byte FORMAT_VERSION = 3;
+    // Choice codes with a hash of the choice, resolved against the current options
+    static final byte HASHED_FORMAT_VERSION = 2;
+    // Choice codes without a hash, resolved against the current options by position
+    static final byte UNHASHED_FORMAT_VERSION = 1;
+
+    static final byte QUESTION_IDS_FORMAT_VERSION = 1;
+
+    /**
+     * Points per skill for one submission, indexed like {@link #skills()}.
+     */
+    public record Score(int total, String[] skills, int[] skillPoints) {
+
+        public Map<String, Integer> skillScores() {
+            Map<String, Integer> scores = new LinkedHashMap<>();
+            for (int i = 0; i < skills.length; i++) {
+                scores.put(skills[i], skillPoints[i]);
+            }
+            return scores;
+        }
+    }
+
+    /**
+     * A submission in stored form: the blob, plus the answers that are not
+     * one of their question's choices.
+     */
+    public record Encoded(byte[] blob, Map<Long, String> freeText) {
+    }
+
+    private AnswerKey(long testId, long[] questionIds, String[] correctAnswers, int[] points, int[] skillIndex,
+            String[] skills, String[][] choices) {
+        this.testId = testId;
+        this.questionIds = questionIds;
+        this.correctAnswers = correctAnswers;
+        this.points = points;
+        this.skillIndex = skillIndex;
+        this.skills = skills;
+        this.choices = choices;
+        this.skillMaxPoints = new int[skills.length];
+        this.choiceBytes = new byte[choices.length][][];
+        this.correctChoices = new boolean[choices.length][];
+        for (int i = 0; i < points.length; i++) {
+            skillMaxPoints[skillIndex[i]] += points[i];
+            choiceBytes[i] = new byte[choices[i].length][];
+            correctChoices[i] = new boolean[choices[i].length];
+            for (int c = 0; c < choices[i].length; c++) {
+                choiceBytes[i][c] = choices[i][c].getBytes(StandardCharsets.UTF_8);
+                correctChoices[i][c] = matches(correctAnswers[i], choices[i][c]);
+            }
+        }
+    }
+
+    public static AnswerKey of(Test test) {
+        return of(test.getId(), test.getQuestions());
+    }
+
+    /**
+     * Key over the given questions, for tests whose questions are not a fixed
+     * list: an adaptive session is scored against the questions it was asked.
+     */
+    public static AnswerKey of(long testId, List<Question> asked) {
+        List<Question> questions = asked.stream()
+                .sorted(Comparator.comparing(Question::getId))
+                .toList();
+        String[] skills = questions.stream().map(Question::getSkill).distinct().sorted().toArray(String[]::new);
+
+        int n = questions.size();
+        long[] questionIds = new long[n];
+        String[] correctAnswers = new String[n];
+        int[] points = new int[n];
+        int[] skillIndex = new int[n];
+        String[][] choices = new String[n][];
+        for (int i = 0; i < n; i++) {
+            Question q = questions.get(i);
+            questionIds[i] = q.getId();
+            correctAnswers[i] = q.getCorrectAnswer() == null ? null : q.getCorrectAnswer().trim();
+            points[i] = q.getPoints() == null ? 0 : q.getPoints();
+            skillIndex[i] = Arrays.binarySearch(skills, q.getSkill());
+            choices[i] = choicesOf(q);
+        }
+        return new AnswerKey(testId, questionIds, correctAnswers, points, skillIndex, skills, choices);
+    }
+
+    // Everything the exam page can send for the question: option letters, option texts, true/false
+    private static String[] choicesOf(Question question) {
+        Set<String> choices = new LinkedHashSet<>();
+        List<String> options = question.getOptions() == null ? List.of()
+                : Arrays.stream(question.getOptions().split(",")).map(String::trim).filter(o -> !o.isEmpty()).toList();
+        for (int o = 0; o < options.size() && o < 26; o++) {
+            choices.add(String.valueOf((char) ('A' + o)));
+        }
+        choices.addAll(options);
+        if (question.getType() == QuestionType.TRUE_FALSE) {
+            choices.add("true");
+            choices.add("false");
+        }
+        return choices.toArray(String[]::new);
+    }
+
+    public long getTestId() {
+        return testId;
+    }
+
+    public String[] skills() {
+        return skills.clone();
+    }
+
+    /** Points available per skill, indexed like {@link #skills()}. */
+    public int[] skillMaxPoints() {
+        return skillMaxPoints.clone();
+    }
+
+    public boolean containsQuestion(long questionId) {
+        return Arrays.binarySearch(questionIds, questionId) >= 0;
+    }
+
+    /** The distinct question ids of the key, ascending. */
+    public long[] questionIds() {
+        return Arrays.stream(questionIds).distinct().toArray();
+    }
+
+    /** Whether the answer is correct for the question; false for questions outside the key. */
+    public boolean isCorrect(long questionId, String answer) {
+        int i = Arrays.binarySearch(questionIds, questionId);
+        return i >= 0 && answer != null && matches(correctAnswers[i], answer);
+    }
+
+    public Score score(Map<Long, String> answers) {
+        int[] skillPoints = new int[skills.length];
+        int total = 0;
+        if (answers != null) {
+            for (Map.Entry<Long, String> answer : answers.entrySet()) {
+                if (answer.getKey() == null || answer.getValue() == null) {
+                    continue;
+                }
+                int i = Arrays.binarySearch(questionIds, answer.getKey());
+                if (i < 0) {
+                    continue;
+                }
+                // A question linked to the test more than once scores once per link
+                while (i > 0 && questionIds[i - 1] == questionIds[i]) {
+                    i--;
+                }
+                for (; i < questionIds.length && questionIds[i] == answer.getKey(); i++) {
+                    if (matches(correctAnswers[i], answer.getValue())) {
+                        skillPoints[skillIndex[i]] += points[i];
+                        total += points[i];
+                    }
+                }
+            }
+        }
+        return new Score(total, skills, skillPoints);
+    }
+
+    /**
+     * Stored form of the answers. An answer that matches one of its question's
+     * choices up to case and surrounding whitespace is stored as that choice,
+     * so decoding gives back the choice as the exam page spells it.
+     */
+    public Encoded encode(Map<Long, String> answers) {
+        Map<Long, String> freeText = new HashMap<>();
+        if (answers == null) {
+            answers = Map.of();
+        }
+        long[] ids = answers.entrySet().stream()
+                .filter(a -> a.getKey() != null && a.getValue() != null)
+                .mapToLong(Map.Entry::getKey)
+                .sorted()
+                .toArray();
+
+        VarintWriter out = new VarintWriter(2 + ids.length * 5);
+        out.writeByte(FORMAT_VERSION);
+        out.writeVarint(ids.length);
+        long previous = 0;
+        for (long id : ids) {
+            String answer = answers.get(id);
+            int i = Arrays.binarySearch(questionIds, id);
+            int code = i < 0 ? 0 : choiceCode(i, answer);
+            out.writeVarint(id - previous);
+            out.writeVarint(code);
+            if (code == 0) {
+                freeText.put(id, answer);
+            } else {
+                byte[] choice = choiceBytes[i][code - 1];
+                out.writeVarint(choice.length);
+                out.writeBytes(choice);
+            }
+            previous = id;
+        }
+        return new Encoded(out.toByteArray(), freeText);
+    }
+
+    /**
+     * Answers from their stored form, as they were submitted. Only blobs of
+     * the earlier formats depend on this key: there a choice the question no
+     * longer has is left out.
+     */
+    public Map<Long, String> decode(byte[] blob, Map<Long, String> freeText) {
+        Map<Long, String> answers = new HashMap<>();
+        VarintReader in = new VarintReader(blob);
+        for (int n = in.count(); n > 0; n--) {
+            long id = in.nextId();
+            int code = (int) in.readVarint();
+            String answer;
+            if (code == 0) {
+                answer = freeText.get(id);
+            } else if (in.storesChoices()) {
+                answer = in.readChoice();
+            } else {
+                int hash = in.readChoiceHash();
+                int i = Arrays.binarySearch(questionIds, id);
+                int c = i < 0 ? -1 : resolve(i, code, hash);
+                answer = c < 0 ? null : choices[i][c];
+            }
+            if (answer != null) {
+                answers.put(id, answer);
+            }
+        }
+        return answers;
+    }
+
+    /** Same result as {@link #score(Map)} on the decoded answers, without decoding choices to strings. */
+    public Score score(byte[] blob, Map<Long, String> freeText) {
+        int[] skillPoints = new int[skills.length];
+        int total = 0;
+        VarintReader in = new VarintReader(blob);
+        for (int n = in.count(); n > 0; n--) {
+            long id = in.nextId();
+            int code = (int) in.readVarint();
+            int i = Arrays.binarySearch(questionIds, id);
+            int c = -1;
+            String text = null;
+            if (code == 0) {
+                text = freeText.get(id);
+            } else if (in.storesChoices()) {
+                int length = (int) in.readVarint();
+                int from = in.skip(length);
+                c = i < 0 ? -1 : find(i, code, blob, from, length);
+                if (i >= 0 && c < 0) {
+                    // No longer one of the question's choices; scored like the text it was
+                    text = new String(blob, from, length, StandardCharsets.UTF_8);
+                }
+            } else {
+                int hash = in.readChoiceHash();
+                c = i < 0 ? -1 : resolve(i, code, hash);
+            }
+            if (i < 0) {
+                continue;
+            }
+            while (i > 0 && questionIds[i - 1] == questionIds[i]) {
+                i--;
+            }
+            for (; i < questionIds.length && questionIds[i] == id; i++) {
+                boolean correct = c >= 0 ? correctChoices[i][c] : text != null && matches(correctAnswers[i], text);
+                if (correct) {
+                    skillPoints[skillIndex[i]] += points[i];
+                    total += points[i];
+                }
+            }
+        }
+        return new Score(total, skills, skillPoints);
+    }
+
+    /**
+     * Compact form of a list of questions, such as the ones a session was
+     * shown: the distinct ids ascending, as a varint count and id deltas.
+     */
+    public static byte[] encodeQuestionIds(long[] ids) {
+        long[] distinct = Arrays.stream(ids).sorted().distinct().toArray();
+        VarintWriter out = new VarintWriter(2 + distinct.length * 2);
+        out.writeByte(QUESTION_IDS_FORMAT_VERSION);
+        out.writeVarint(distinct.length);
+        long previous = 0;
+        for (long id : distinct) {
+            out.writeVarint(id - previous);
+            previous = id;
+        }
+        return out.toByteArray();
+    }
+
+    public static long[] decodeQuestionIds(byte[] encoded) {
+        if (encoded.length == 0 || encoded[0] != QUESTION_IDS_FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported question list encoding");
+        }
+        VarintReader in = new VarintReader(encoded, UNHASHED_FORMAT_VERSION);
+        long[] ids = new long[in.count()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = in.nextId();
+        }
+        return ids;
+    }
+
+    private int choiceCode(int i, String answer) {
+        // Same comparison as scoring, so an answer scores the same as the choice it is stored as
+        for (int c = 0; c < choices[i].length; c++) {
+            if (matches(choices[i][c], answer)) {
+                return c + 1;
+            }
+        }
+        return 0;
+    }
+
+    // Index of the stored choice text among the question's current choices, trying its old position first
+    private int find(int i, int code, byte[] blob, int from, int length) {
+        if (code <= choiceBytes[i].length
+                && Arrays.equals(choiceBytes[i][code - 1], 0, choiceBytes[i][code - 1].length, blob, from, from + length)) {
+            return code - 1;
+        }
+        for (int c = 0; c < choiceBytes[i].length; c++) {
+            if (Arrays.equals(choiceBytes[i][c], 0, choiceBytes[i][c].length, blob, from, from + length)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    // Earlier formats: the choice at the stored position, or -1 if that is no longer the choice it was
+    private int resolve(int i, int code, int hash) {
+        if (code > choices[i].length) {
+            return -1;
+        }
+        return hash < 0 || choiceHash(choices[i][code - 1]) == hash ? code - 1 : -1;
+    }
+
+    // Case-insensitive like matches(), so it only tells apart choices that score differently
+    private static int choiceHash(String choice) {
+        return choice.toLowerCase(Locale.ROOT).hashCode() & 0xFFFF;
+    }
+
+    private static final class VarintWriter {
+        private byte[] bytes;
+        private int size;
+
+        VarintWriter(int capacity) {
+            bytes = new byte[Math.max(capacity, 8)];
+        }
+
+        void writeByte(int b) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            bytes[size++] = (byte) b;
+        }
+
+        void writeBytes(byte[] value) {
+            if (size + value.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(size * 2, size + value.length));
+            }
+            System.arraycopy(value, 0, bytes, size, value.length);
+            size += value.length;
+        }
+
+        void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+
+    private static final class VarintReader {
+        private final byte[] bytes;
+        private final byte format;
+        private int position;
+        private long previousId;
+
+        VarintReader(byte[] bytes) {
+            this(bytes, (byte) (bytes.length == 0 ? 0 : bytes[0]));
+            if (format < UNHASHED_FORMAT_VERSION || format > FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported answer encoding");
+            }
+        }
+
+        // Reads past the version byte, which the caller has checked
+        VarintReader(byte[] bytes, byte format) {
+            this.bytes = bytes;
+            this.format = format;
+            this.position = 1;
+        }
+
+        // Whether non-zero codes are followed by the choice's text
+        boolean storesChoices() {
+            return format == FORMAT_VERSION;
+        }
+
+        String readChoice() {
+            int length = (int) readVarint();
+            return new String(bytes, skip(length), length, StandardCharsets.UTF_8);
+        }
+
+        // Skips length bytes, returning where they start
+        int skip(int length) {
+            int start = position;
+            position += length;
+            return start;
+        }
+
+        int count() {
+            return (int) readVarint();
+        }
+
+        long nextId() {
+            previousId += readVarint();
+            return previousId;
+        }
+
+        // Hash of the choice a non-zero code stood for, or -1 for the unhashed format
+        int readChoiceHash() {
+            if (format == UNHASHED_FORMAT_VERSION) {
+                return -1;
+            }
+            int hash = (bytes[position] & 0xFF) << 8 | bytes[position + 1] & 0xFF;
+            position += 2;
+            return hash;
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+    }
+
+    // Case-insensitive comparison against the trimmed submission, without allocating a trimmed copy
+    static boolean matches(String correct, String submitted) {
+        if (correct == null) {
+            return false;
+        }
+        int start = 0;
+        int end = submitted.length();
+        while (start < end && submitted.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && submitted.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end - start == correct.length() && submitted.regionMatches(true, start, correct, 0, correct.length());
+    }
+}
@@ -0,0 +1,76 @@
+package com.skillevaluator.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skillevaluator.model.Test;
+import com.skillevaluator.repository.TestRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-test compiled {@link AnswerKey}s used to score submissions. Evicted
+ * alongside the {@link ExamSnapshotCache} whenever a test or one of its
+ * questions is edited, and bounded and expired the same way, so a key
+ * changed through another instance is not scored against for longer than
+ * the TTL.
+ */
+@Component
+public class AnswerKeyCache {
+
+    @Autowired
+    private TestRepository testRepository;
+
+    @Value("${exam.answer-key-cache.max-size:5000}")
+    private int maxSize;
+
+    @Value("${exam.answer-key-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private Cache<Long, AnswerKey> keys;
+
+    // Bumped on every eviction so a load that raced with a recruiter edit is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        keys = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public AnswerKey get(@org.springframework.lang.NonNull Long testId) {
+        AnswerKey cached = keys.getIfPresent(testId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadGeneration = generation.get();
+        Test test = testRepository.findWithQuestionsById(testId)
+                .orElseThrow(() -> new RuntimeException("Test not found"));
+        AnswerKey key = AnswerKey.of(test);
+
+        // Same double check as ExamSnapshotCache: atomic against evictTest, re-checked against evictQuestions
+        keys.asMap().compute(testId, (id, current) -> generation.get() == loadGeneration ? key : current);
+        if (generation.get() != loadGeneration) {
+            keys.asMap().remove(testId, key);
+        }
+        return key;
+    }
+
+    public void evictTest(Long testId) {
+        generation.incrementAndGet();
+        keys.invalidate(testId);
+    }
+
+    public void evictQuestions(Collection<Long> questionIds) {
+        generation.incrementAndGet();
+        keys.asMap().values().removeIf(k -> questionIds.stream().anyMatch(k::containsQuestion));
+    }
+}
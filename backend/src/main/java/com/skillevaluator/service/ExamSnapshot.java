@@ -0,0 +1,190 @@
+package com.skillevaluator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillevaluator.model.Difficulty;
+import com.skillevaluator.model.Question;
+import com.skillevaluator.model.QuestionType;
+import com.skillevaluator.model.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable candidate view of a test: no correct answers or explanations,
+ * options pre-split, and every part already serialized to JSON so a start
+ * only splices in the session id, the timer and the question order.
+ */
+public final class ExamSnapshot {
+
+    private static final byte[] TEST_PREFIX = ascii("{\"test\":");
+    private static final byte[] QUESTIONS_PREFIX = ascii(",\"questions\":[");
+    private static final byte[] SESSION_ID_PREFIX = ascii("],\"sessionId\":");
+    private static final byte[] TIME_REMAINING_PREFIX = ascii(",\"timeRemaining\":");
+
+    private final long testId;
+    private final boolean active;
+    private final int durationMinutes;
+    private final Integer totalPoints;
+    private final long[] sortedQuestionIds;
+    private final byte[] encodedQuestionIds;
+    private final byte[] testJson;
+    private final byte[][] questionJson;
+    private final int questionBytes;
+    private final boolean adaptive;
+    private final List<String> adaptiveSkills;
+    private final int adaptiveItems;
+
+    // Serialized in place of the entities so answers can never leak into a start response
+    private record TestView(Long id, String title, String description, Integer durationMinutes, Integer totalPoints,
+            Boolean isActive, LocalDateTime createdAt, LocalDateTime updatedAt) {
+    }
+
+    record QuestionView(Long id, String text, QuestionType type, String skill, Difficulty difficulty,
+            String options, List<String> choices, Integer points) {
+    }
+
+    private ExamSnapshot(Test test, byte[] testJson, byte[][] questionJson) {
+        this.testId = test.getId();
+        this.active = Boolean.TRUE.equals(test.getIsActive());
+        this.durationMinutes = test.getDurationMinutes();
+        this.totalPoints = test.getTotalPoints();
+        this.sortedQuestionIds = test.getQuestions().stream().mapToLong(Question::getId).sorted().toArray();
+        this.encodedQuestionIds = AnswerKey.encodeQuestionIds(sortedQuestionIds);
+        this.testJson = testJson;
+        this.questionJson = questionJson;
+        this.questionBytes = Arrays.stream(questionJson).mapToInt(q -> q.length).sum();
+        this.adaptive = Boolean.TRUE.equals(test.getAdaptive());
+        this.adaptiveSkills = splitOptions(test.getAdaptiveSkills());
+        this.adaptiveItems = test.getAdaptiveItems() == null ? 0 : test.getAdaptiveItems();
+    }
+
+    public static ExamSnapshot of(Test test, ObjectMapper objectMapper) {
+        try {
+            byte[] testJson = objectMapper.writeValueAsBytes(new TestView(test.getId(), test.getTitle(),
+                    test.getDescription(), test.getDurationMinutes(), test.getTotalPoints(), test.getIsActive(),
+                    test.getCreatedAt(), test.getUpdatedAt()));
+
+            List<Question> questions = test.getQuestions();
+            byte[][] questionJson = new byte[questions.size()][];
+            for (int i = 0; i < questionJson.length; i++) {
+                questionJson[i] = objectMapper.writeValueAsBytes(view(questions.get(i)));
+            }
+            return new ExamSnapshot(test, testJson, questionJson);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to build exam snapshot for test " + test.getId(), e);
+        }
+    }
+
+    /** What a candidate may see of a question. */
+    static QuestionView view(Question q) {
+        return new QuestionView(q.getId(), q.getText(), q.getType(), q.getSkill(), q.getDifficulty(), q.getOptions(),
+                splitOptions(q.getOptions()), q.getPoints());
+    }
+
+    private static List<String> splitOptions(String options) {
+        if (options == null || options.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(options.split(",")).map(String::trim).filter(o -> !o.isEmpty()).toList();
+    }
+
+    public long getTestId() {
+        return testId;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public Integer getTotalPoints() {
+        return totalPoints;
+    }
+
+    public int getQuestionCount() {
+        return questionJson.length;
+    }
+
+    /** Whether questions are picked one at a time by the {@link AdaptiveTestEngine}. */
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    public List<String> getAdaptiveSkills() {
+        return adaptiveSkills;
+    }
+
+    public int getAdaptiveItems() {
+        return adaptiveItems;
+    }
+
+    public boolean containsQuestion(long questionId) {
+        return Arrays.binarySearch(sortedQuestionIds, questionId) >= 0;
+    }
+
+    /** The test's questions as {@link AnswerKey#encodeQuestionIds}, recorded with each session started from it. */
+    public byte[] encodedQuestionIds() {
+        return encodedQuestionIds.clone();
+    }
+
+    /** A fresh random question order for one candidate. */
+    public int[] shuffledOrder() {
+        int[] order = new int[questionJson.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+
+    /**
+     * Writes the /start response body: {@code {"test":..,"questions":[..],"sessionId":..,"timeRemaining":..}}
+     * with the questions in the given order.
+     */
+    public byte[] render(long sessionId, int timeRemaining, int[] order) {
+        byte[] sessionIdBytes = ascii(Long.toString(sessionId));
+        byte[] timeRemainingBytes = ascii(Integer.toString(timeRemaining));
+        int length = TEST_PREFIX.length + testJson.length + QUESTIONS_PREFIX.length + questionBytes
+                + Math.max(0, order.length - 1) + SESSION_ID_PREFIX.length + sessionIdBytes.length
+                + TIME_REMAINING_PREFIX.length + timeRemainingBytes.length + 1;
+
+        byte[] body = new byte[length];
+        int pos = put(body, 0, TEST_PREFIX);
+        pos = put(body, pos, testJson);
+        pos = put(body, pos, QUESTIONS_PREFIX);
+        for (int i = 0; i < order.length; i++) {
+            if (i > 0) {
+                body[pos++] = ',';
+            }
+            pos = put(body, pos, questionJson[order[i]]);
+        }
+        pos = put(body, pos, SESSION_ID_PREFIX);
+        pos = put(body, pos, sessionIdBytes);
+        pos = put(body, pos, TIME_REMAINING_PREFIX);
+        pos = put(body, pos, timeRemainingBytes);
+        body[pos] = '}';
+        return body;
+    }
+
+    private static int put(byte[] target, int pos, byte[] source) {
+        System.arraycopy(source, 0, target, pos, source.length);
+        return pos + source.length;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,82 @@
+package com.skillevaluator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skillevaluator.model.Test;
+import com.skillevaluator.repository.TestRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-test {@link ExamSnapshot}s for the exam start path. Recruiter edits to a
+ * test or to any question it contains evict the snapshot; the next start
+ * rebuilds it from the database. The least recently used snapshots go once
+ * the cache is full, and every snapshot expires after the TTL so edits made
+ * through another instance are picked up.
+ */
+@Component
+public class ExamSnapshotCache {
+
+    @Autowired
+    private TestRepository testRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${exam.snapshot-cache.max-size:5000}")
+    private int maxSize;
+
+    @Value("${exam.snapshot-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private Cache<Long, ExamSnapshot> snapshots;
+
+    // Bumped on every eviction so a load that raced with a recruiter edit is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public ExamSnapshot get(@org.springframework.lang.NonNull Long testId) {
+        ExamSnapshot cached = snapshots.getIfPresent(testId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadGeneration = generation.get();
+        Test test = testRepository.findWithQuestionsById(testId)
+                .orElseThrow(() -> new RuntimeException("Test not found"));
+        ExamSnapshot snapshot = ExamSnapshot.of(test, objectMapper);
+
+        // Checked under the key's lock, so an evictTest either sees the entry or has already bumped the generation
+        snapshots.asMap().compute(testId,
+                (id, current) -> generation.get() == loadGeneration ? snapshot : current);
+        // evictQuestions scans without the key's lock; if one started meanwhile it may have missed the entry
+        if (generation.get() != loadGeneration) {
+            snapshots.asMap().remove(testId, snapshot);
+        }
+        return snapshot;
+    }
+
+    public void evictTest(Long testId) {
+        generation.incrementAndGet();
+        snapshots.invalidate(testId);
+    }
+
+    public void evictQuestions(Collection<Long> questionIds) {
+        generation.incrementAndGet();
+        snapshots.asMap().values().removeIf(s -> questionIds.stream().anyMatch(s::containsQuestion));
+    }
+}
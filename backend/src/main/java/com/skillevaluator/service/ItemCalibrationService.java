@@ -0,0 +1,349 @@
+package com.skillevaluator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates the 2PL parameters of the questions ({@code question_item_params})
+ * from completed sessions, for the {@link AdaptiveTestEngine}. Rather than a
+ * joint IRT fit, each session's ability is read off its own result: its
+ * score on a fixed test standardized among that test's sessions, or the
+ * percentile score of an adaptive one, both on the N(0, 1) scale. Responses are binned by that ability
+ * and each question gets a logistic regression, pulled towards
+ * discrimination 1 and difficulty 0, whose slope and midpoint are its
+ * discrimination and difficulty. Questions with too few responses get no
+ * row and keep the engine's prior.
+ *
+ * A session counts the questions it was shown: the test's questions when
+ * it started, or the ones an adaptive session was asked. Sessions started
+ * before that list was recorded fall back to the test's current questions.
+ * Answers are checked against each question's current correct answer, so a
+ * question since removed from the test still counts.
+ *
+ * Sessions are read a chunk at a time like the skill score backfill, so
+ * memory is the bins per question rather than the answers.
+ */
+@Service
+public class ItemCalibrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemCalibrationService.class);
+
+    private static final int CHUNK = 1000;
+
+    private static final String SESSIONS_SQL = "SELECT s.id, s.test_id, s.score, s.total_points, s.answers, "
+            + "s.answers_blob, s.question_ids, t.adaptive FROM test_sessions s JOIN tests t ON t.id = s.test_id "
+            + "WHERE s.is_completed = true AND s.id > ? AND (s.answers_blob IS NOT NULL OR s.answers IS NOT NULL) "
+            + "ORDER BY s.id LIMIT ?";
+
+    private static final String TEST_STATS_SQL = "SELECT s.test_id, "
+            + "AVG(CAST(s.score AS DOUBLE PRECISION) / s.total_points) AS mean, "
+            + "STDDEV_SAMP(CAST(s.score AS DOUBLE PRECISION) / s.total_points) AS sd "
+            + "FROM test_sessions s JOIN tests t ON t.id = s.test_id WHERE s.is_completed = true "
+            + "AND s.score IS NOT NULL AND s.total_points > 0 AND (t.adaptive IS NULL OR t.adaptive = false) "
+            + "GROUP BY s.test_id";
+
+    private static final String TEXT_ANSWERS_SQL = "SELECT session_id, question_id, answer FROM session_text_answers "
+            + "WHERE session_id BETWEEN ? AND ?";
+
+    private static final String INSERT_SQL = "INSERT INTO question_item_params "
+            + "(question_id, discrimination, difficulty, responses, calibrated_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final TypeReference<Map<Long, String>> ANSWERS = new TypeReference<>() {
+    };
+
+    // Ability bins of width 0.2 over [-4, 4]
+    private static final int BINS = 41;
+    private static final double BIN_WIDTH = 0.2;
+
+    // Fewer questions than this say too little about a fixed-test candidate's ability
+    private static final int MIN_SESSION_ITEMS = 5;
+
+    private static final double MIN_DISCRIMINATION = 0.2;
+    private static final double MAX_DISCRIMINATION = 3.0;
+    private static final double MAX_DIFFICULTY = 4.0;
+    // Weight of the N(0, 1) priors on the regression's intercept and slope (around 0 and 1)
+    private static final double RIDGE = 1.0;
+
+    public record CalibrationResult(long sessions, long responses, int items) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private AdaptiveTestEngine adaptiveTestEngine;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${calibration.min-responses:30}")
+    private int minResponses;
+
+    private record SessionRow(long id, long testId, Integer score, Integer totalPoints, String answers, byte[] blob,
+            byte[] questionIds, boolean adaptive) {
+    }
+
+    // A session's answers and the questions it was asked, whether answered or not
+    private record Responses(Map<Long, String> answers, long[] asked) {
+    }
+
+    private record TestStats(double mean, double sd) {
+    }
+
+    /**
+     * Recalibrates every question from scratch and reloads the engine's bank.
+     * The previous parameters are replaced in one transaction.
+     */
+    public CalibrationResult calibrate() {
+        long start = System.nanoTime();
+        // Per question: responses and correct answers per ability bin, interleaved
+        Map<Long, int[]> bins = new HashMap<>();
+        Map<Long, String> correctAnswers = new HashMap<>();
+        long sessions = 0;
+        long responses = 0;
+        long lastId = 0;
+        Map<Long, TestStats> testStats = new HashMap<>();
+        jdbcTemplate.query(TEST_STATS_SQL, rs -> {
+            testStats.put(rs.getLong("test_id"), new TestStats(rs.getDouble("mean"), rs.getDouble("sd")));
+        });
+
+        while (true) {
+            List<SessionRow> chunk = jdbcTemplate.query(SESSIONS_SQL, (rs, row) -> new SessionRow(rs.getLong("id"),
+                    rs.getLong("test_id"), (Integer) rs.getObject("score"), (Integer) rs.getObject("total_points"),
+                    rs.getString("answers"), rs.getBytes("answers_blob"), rs.getBytes("question_ids"),
+                    rs.getBoolean("adaptive")), lastId, CHUNK);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            lastId = chunk.get(chunk.size() - 1).id();
+            Map<Long, Map<Long, String>> freeText = freeText(chunk.get(0).id(), lastId);
+            Map<Long, Responses> responsesBySession = new HashMap<>();
+            for (SessionRow session : chunk) {
+                responsesBySession.put(session.id(),
+                        responses(session, freeText.getOrDefault(session.id(), Map.of())));
+            }
+            loadCorrectAnswers(responsesBySession.values(), correctAnswers);
+
+            for (SessionRow session : chunk) {
+                Responses taken = responsesBySession.get(session.id());
+                int recorded = session.adaptive()
+                        ? recordAdaptive(session, taken, correctAnswers, bins)
+                        : recordFixed(session, taken, testStats.get(session.testId()), correctAnswers, bins);
+                if (recorded > 0) {
+                    sessions++;
+                    responses += recorded;
+                }
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        bins.forEach((questionId, counts) -> {
+            int n = 0;
+            for (int k = 0; k < BINS; k++) {
+                n += counts[2 * k];
+            }
+            if (n >= minResponses) {
+                double[] parameters = fit(counts);
+                rows.add(new Object[] { questionId, parameters[0], parameters[1], n, now });
+            }
+        });
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM question_item_params");
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        });
+        adaptiveTestEngine.rebuild();
+
+        log.info("Calibrated {} questions from {} responses in {} sessions in {} ms", rows.size(), responses,
+                sessions, (System.nanoTime() - start) / 1_000_000);
+        return new CalibrationResult(sessions, responses, rows.size());
+    }
+
+    private Responses responses(SessionRow session, Map<Long, String> freeText) {
+        if (session.adaptive()) {
+            // Every question an adaptive session was asked is autosaved, the one on screen with an empty answer
+            Map<Long, String> answers = parse(session.answers());
+            return new Responses(answers, answers.keySet().stream().mapToLong(Long::longValue).toArray());
+        }
+        AnswerKey key = null;
+        Map<Long, String> answers;
+        if (session.blob() != null) {
+            key = answerKeyCache.get(session.testId());
+            answers = key.decode(session.blob(), freeText);
+        } else {
+            answers = parse(session.answers());
+        }
+        if (session.questionIds() != null) {
+            return new Responses(answers, AnswerKey.decodeQuestionIds(session.questionIds()));
+        }
+        if (answers.isEmpty()) {
+            return new Responses(answers, new long[0]);
+        }
+        key = key != null ? key : answerKeyCache.get(session.testId());
+        return new Responses(answers, key.questionIds());
+    }
+
+    // Every question the session was shown counts as asked; one left unanswered was not known
+    private int recordFixed(SessionRow session, Responses taken, TestStats stats, Map<Long, String> correctAnswers,
+            Map<Long, int[]> bins) {
+        if (stats == null || !(stats.sd() > 0) || session.score() == null || session.totalPoints() == null
+                || session.totalPoints() <= 0) {
+            return 0;
+        }
+        if (taken.asked().length < MIN_SESSION_ITEMS || taken.answers().isEmpty()) {
+            return 0;
+        }
+        // Whoever takes a test is assumed to be as able as candidates at large, N(0, 1)
+        int bin = bin((session.score() / (double) session.totalPoints() - stats.mean()) / stats.sd());
+        return record(taken, bin, correctAnswers, bins);
+    }
+
+    // Its score already is an ability percentile
+    private int recordAdaptive(SessionRow session, Responses taken, Map<Long, String> correctAnswers,
+            Map<Long, int[]> bins) {
+        if (session.score() == null || taken.answers().isEmpty()) {
+            return 0;
+        }
+        double percentile = Math.min(0.995, Math.max(0.005, session.score() / (double) AdaptiveTestEngine.MAX_SCORE));
+        return record(taken, bin(AdaptiveTestEngine.normalQuantile(percentile)), correctAnswers, bins);
+    }
+
+    // Questions since deleted from the bank have no correct answer to check against and are skipped
+    private static int record(Responses taken, int bin, Map<Long, String> correctAnswers, Map<Long, int[]> bins) {
+        int recorded = 0;
+        for (long questionId : taken.asked()) {
+            if (correctAnswers.containsKey(questionId)) {
+                String answer = taken.answers().get(questionId);
+                record(bins, questionId, bin,
+                        answer != null && AnswerKey.matches(correctAnswers.get(questionId), answer));
+                recorded++;
+            }
+        }
+        return recorded;
+    }
+
+    private static void record(Map<Long, int[]> bins, long questionId, int bin, boolean correct) {
+        int[] counts = bins.computeIfAbsent(questionId, id -> new int[2 * BINS]);
+        counts[2 * bin]++;
+        if (correct) {
+            counts[2 * bin + 1]++;
+        }
+    }
+
+    private Map<Long, Map<Long, String>> freeText(long firstSessionId, long lastSessionId) {
+        Map<Long, Map<Long, String>> bySession = new HashMap<>();
+        jdbcTemplate.query(TEXT_ANSWERS_SQL, rs -> {
+            bySession.computeIfAbsent(rs.getLong("session_id"), id -> new HashMap<>())
+                    .put(rs.getLong("question_id"), rs.getString("answer"));
+        }, firstSessionId, lastSessionId);
+        return bySession;
+    }
+
+    // Looked up once per question rather than taken from a test's current key, which may no longer have it
+    private void loadCorrectAnswers(Collection<Responses> chunk, Map<Long, String> correctAnswers) {
+        List<Long> missing = chunk.stream()
+                .flatMapToLong(taken -> Arrays.stream(taken.asked()))
+                .filter(id -> !correctAnswers.containsKey(id))
+                .distinct()
+                .boxed()
+                .toList();
+        for (int from = 0; from < missing.size(); from += CHUNK) {
+            List<Long> ids = missing.subList(from, Math.min(missing.size(), from + CHUNK));
+            String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+            jdbcTemplate.query("SELECT id, correct_answer FROM questions WHERE id IN (" + placeholders + ")",
+                    rs -> {
+                        String correct = rs.getString("correct_answer");
+                        correctAnswers.put(rs.getLong("id"), correct == null ? null : correct.trim());
+                    }, ids.toArray());
+        }
+    }
+
+    private Map<Long, String> parse(String json) {
+        if (json == null || json.isBlank()) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(json, ANSWERS);
+        } catch (JsonProcessingException e) {
+            return Map.of();
+        }
+    }
+
+    private static int bin(double theta) {
+        int bin = (int) Math.round((theta + (BINS - 1) * BIN_WIDTH / 2) / BIN_WIDTH);
+        return Math.min(BINS - 1, Math.max(0, bin));
+    }
+
+    private static double binTheta(int bin) {
+        return bin * BIN_WIDTH - (BINS - 1) * BIN_WIDTH / 2;
+    }
+
+    /**
+     * Discrimination and difficulty of one question: Newton's method on the
+     * binned logistic likelihood of correct ~ alpha + beta * theta, with
+     * ridge penalties towards alpha = 0 and beta = 1. The slope is the
+     * discrimination and -alpha / beta the difficulty.
+     */
+    static double[] fit(int[] counts) {
+        double alpha = 0;
+        double beta = 1;
+        for (int iteration = 0; iteration < 25; iteration++) {
+            double gradientAlpha = -RIDGE * alpha;
+            double gradientBeta = -RIDGE * (beta - 1);
+            double hAA = RIDGE;
+            double hAB = 0;
+            double hBB = RIDGE;
+            for (int k = 0; k < BINS; k++) {
+                int n = counts[2 * k];
+                if (n == 0) {
+                    continue;
+                }
+                double theta = binTheta(k);
+                double p = 1 / (1 + Math.exp(-(alpha + beta * theta)));
+                double residual = counts[2 * k + 1] - n * p;
+                double weight = n * p * (1 - p);
+                gradientAlpha += residual;
+                gradientBeta += residual * theta;
+                hAA += weight;
+                hAB += weight * theta;
+                hBB += weight * theta * theta;
+            }
+            double determinant = hAA * hBB - hAB * hAB;
+            double stepAlpha = (hBB * gradientAlpha - hAB * gradientBeta) / determinant;
+            double stepBeta = (hAA * gradientBeta - hAB * gradientAlpha) / determinant;
+            alpha += stepAlpha;
+            beta += stepBeta;
+            if (Math.abs(stepAlpha) + Math.abs(stepBeta) < 1e-6) {
+                break;
+            }
+        }
+        double discrimination = Math.min(MAX_DISCRIMINATION, Math.max(MIN_DISCRIMINATION, beta));
+        double difficulty = Math.min(MAX_DIFFICULTY, Math.max(-MAX_DIFFICULTY, -alpha / discrimination));
+        return new double[] { discrimination, difficulty };
+    }
+}
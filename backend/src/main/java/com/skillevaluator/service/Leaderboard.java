@@ -0,0 +1,90 @@
+package com.skillevaluator.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ranking of one test's completed sessions: a Fenwick tree of session counts
+ * per score, plus the session ids of each score kept sorted to break ties.
+ * Ordering matches the original full sort - higher score first, equal
+ * scores by ascending session id - so rank lookups and inserts are
+ * O(log n) (inserts also shift the tie list of their score).
+ *
+ * Not thread-safe; {@link LeaderboardService} guards each instance.
+ */
+final class Leaderboard {
+
+    private int[] tree = new int[64];
+    private final Map<Integer, long[]> idsByScore = new HashMap<>();
+    private final Map<Integer, Integer> tieCounts = new HashMap<>();
+    private int total;
+
+    int total() {
+        return total;
+    }
+
+    /** Adds a completed session; adding the same session again is a no-op. */
+    void add(long sessionId, int score) {
+        long[] ids = idsByScore.getOrDefault(score, new long[4]);
+        int size = tieCounts.getOrDefault(score, 0);
+        int pos = Arrays.binarySearch(ids, 0, size, sessionId);
+        if (pos >= 0) {
+            return;
+        }
+        pos = -pos - 1;
+        ensureCapacity(score);
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+        ids[pos] = sessionId;
+        idsByScore.put(score, ids);
+        tieCounts.put(score, size + 1);
+
+        for (int i = score + 1; i < tree.length; i += i & -i) {
+            tree[i]++;
+        }
+        total++;
+    }
+
+    /** 1-based rank of the session, or 0 if it is not on the board. */
+    int rank(long sessionId, int score) {
+        long[] ids = idsByScore.get(score);
+        if (ids == null) {
+            return 0;
+        }
+        int tiesBefore = Arrays.binarySearch(ids, 0, tieCounts.get(score), sessionId);
+        if (tiesBefore < 0) {
+            return 0;
+        }
+        int higher = total - countAtMost(score);
+        return higher + tiesBefore + 1;
+    }
+
+    // Sessions scoring <= score
+    private int countAtMost(int score) {
+        int count = 0;
+        for (int i = Math.min(score + 1, tree.length - 1); i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    private void ensureCapacity(int score) {
+        if (score + 1 < tree.length) {
+            return;
+        }
+        int capacity = tree.length;
+        while (score + 1 >= capacity) {
+            capacity *= 2;
+        }
+        // Rebuild from the per-score counts rather than copying, since tree nodes cover ranges
+        tree = new int[capacity];
+        for (Map.Entry<Integer, Integer> entry : tieCounts.entrySet()) {
+            for (int i = entry.getKey() + 1; i < capacity; i += i & -i) {
+                tree[i] += entry.getValue();
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.skillevaluator.service;
+
+import com.skillevaluator.repository.TestSessionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory {@link Leaderboard} per test. A board is built from the database
+ * the first time its test is ranked (so it is rebuilt lazily after a
+ * restart) and then kept current by {@link #recordCompleted}, which applies
+ * only once the submitting transaction has committed.
+ *
+ * Sessions completed through another instance never reach this one's
+ * boards, so boards are dropped once they are older than the refresh
+ * interval and rebuilt on the next lookup. A session that is missing from
+ * its board rebuilds it right away.
+ */
+@Component
+public class LeaderboardService {
+
+    @Autowired
+    private TestSessionRepository testSessionRepository;
+
+    @Value("${exam.leaderboard.refresh-interval-ms:300000}")
+    private long refreshIntervalMs;
+
+    private final ConcurrentHashMap<Long, Board> boards = new ConcurrentHashMap<>();
+
+    public record Standing(int rank, int total) {
+
+        /** Percentage of the board ranked below this session (ties are ordered by session id). */
+        public double percentile() {
+            return total == 0 || rank == 0 ? 0 : (double) (total - rank) / total * 100;
+        }
+    }
+
+    private final class Board {
+        private final long testId;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private Leaderboard leaderboard;
+        private volatile long loadedAtNanos = System.nanoTime();
+
+        Board(long testId) {
+            this.testId = testId;
+        }
+
+        // Caller holds the write lock
+        private void loadIfNeeded() {
+            if (leaderboard == null) {
+                load();
+            }
+        }
+
+        // Caller holds the write lock
+        private void load() {
+            Leaderboard loaded = new Leaderboard();
+            for (Object[] row : testSessionRepository.findCompletedScoresByTestId(testId)) {
+                loaded.add((Long) row[0], scoreOf((Integer) row[1]));
+            }
+            leaderboard = loaded;
+            loadedAtNanos = System.nanoTime();
+        }
+
+        Standing standing(long sessionId, int score) {
+            lock.readLock().lock();
+            try {
+                if (leaderboard != null) {
+                    int rank = leaderboard.rank(sessionId, score);
+                    if (rank > 0) {
+                        return new Standing(rank, leaderboard.total());
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            lock.writeLock().lock();
+            try {
+                // Not loaded yet, or the session was completed through another instance
+                if (leaderboard == null || leaderboard.rank(sessionId, score) == 0) {
+                    load();
+                }
+                return new Standing(leaderboard.rank(sessionId, score), leaderboard.total());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void add(long sessionId, int score) {
+            lock.writeLock().lock();
+            try {
+                // A board still loading picks the session up from the database or from here; add is idempotent
+                loadIfNeeded();
+                leaderboard.add(sessionId, score);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /** Rank (1-based, ties by ascending session id) and number of completed sessions. */
+    public Standing standing(long testId, long sessionId, Integer score) {
+        return boards.computeIfAbsent(testId, Board::new).standing(sessionId, scoreOf(score));
+    }
+
+    /**
+     * Records a session that became completed in the current transaction. Boards
+     * that have not been built yet are skipped; they will read it from the database.
+     */
+    public void recordCompleted(long testId, long sessionId, Integer score) {
+        Runnable apply = () -> {
+            Board board = boards.get(testId);
+            if (board != null) {
+                board.add(sessionId, scoreOf(score));
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    public void evict(long testId) {
+        boards.remove(testId);
+    }
+
+    /** Drops boards built more than an interval ago; the next lookup of their test rebuilds them. */
+    @Scheduled(initialDelayString = "${exam.leaderboard.refresh-interval-ms:300000}",
+            fixedDelayString = "${exam.leaderboard.refresh-interval-ms:300000}")
+    void dropStale() {
+        long oldest = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(refreshIntervalMs);
+        boards.values().removeIf(board -> board.loadedAtNanos - oldest < 0);
+    }
+
+    // Expired sessions have no score and rank as zero
+    private static int scoreOf(Integer score) {
+        return score == null ? 0 : Math.max(0, score);
+    }
+}
@@ -0,0 +1,461 @@
+package com.skillevaluator.service;
+
+import com.skillevaluator.model.Question;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Finds near-duplicate questions by text and options. A question is cut into
+ * the overlapping five-character shingles of its normalised text plus one
+ * shingle per option, and summarised by a MinHash signature of 128 hashes
+ * of which only the low 8 bits are kept (b-bit MinHash). The share of
+ * positions where two signatures agree estimates the Jaccard similarity of
+ * the shingle sets.
+ *
+ * For lookups the signature is cut into 16 bands of 8 hashes, and each
+ * question is chained into one hash table per band. Only questions sharing
+ * a whole band with the query are compared with it, so a lookup costs
+ * microseconds whatever the size of the bank. A pair at 0.8 similarity
+ * shares a band 95% of the time, a pair at 0.5 about 6%, which makes
+ * thresholds much under 0.7 unreliable.
+ *
+ * A {@link ReloadableQuestionIndex}, like {@link QuestionSearchIndex}.
+ */
+@Service
+public class QuestionDuplicateIndex extends ReloadableQuestionIndex<QuestionDuplicateIndex.Table> {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionDuplicateIndex.class);
+
+    private static final String LOAD_SQL = "SELECT id, text, options FROM questions";
+
+    private static final int HASHES = 128;
+    // One band is one long: 8 one-byte hashes
+    private static final int BANDS = HASHES / 8;
+    private static final int SHINGLE_LENGTH = 5;
+
+    // Chain steps a lookup may take; only long runs of near-identical questions get near it
+    private static final int MAX_PROBES = 4096;
+    // Questions the report compares each one with per band; clusters are joined through any member
+    private static final int REPORT_PROBES = 64;
+
+    private static final long[] SEEDS_A = new long[HASHES];
+    private static final long[] SEEDS_B = new long[HASHES];
+    private static final long OPTION_SEED;
+
+    static {
+        // Fixed, so signatures are the same on every instance and across rebuilds
+        SplittableRandom random = new SplittableRandom(0x6475706c69636174L);
+        for (int i = 0; i < HASHES; i++) {
+            SEEDS_A[i] = random.nextLong() | 1;
+            SEEDS_B[i] = random.nextLong();
+        }
+        OPTION_SEED = random.nextLong();
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${duplicates.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${duplicates.threshold:0.8}")
+    private double defaultThreshold;
+
+    @Value("${duplicates.max-matches:10}")
+    private int maxMatches;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+
+    public QuestionDuplicateIndex() {
+        super("Duplicate detection", new Table());
+    }
+
+    @PostConstruct
+    void init() {
+        // A dedicated template so the fetch size only applies to the load
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /** An indexed question resembling the one looked up, with the estimated Jaccard similarity of the two. */
+    public record Match(long questionId, double similarity) {
+    }
+
+    /**
+     * The clusters of near-duplicates in the bank: how many there are, how
+     * many questions they hold, and the ids in the largest of them.
+     */
+    public record Report(double threshold, int clusters, int questions, List<List<Long>> largest) {
+    }
+
+    private record Entry(long id, long[] signature) {
+    }
+
+    // ---------------------------------------------------------------- lifecycle
+
+    @Scheduled(initialDelayString = "${duplicates.refresh-interval-ms:600000}",
+            fixedDelayString = "${duplicates.refresh-interval-ms:600000}")
+    void refresh() {
+        rebuild();
+    }
+
+    @Override
+    protected Table load() {
+        Table fresh = new Table();
+        // PostgreSQL only streams with a cursor inside a transaction; otherwise it buffers the whole result
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(LOAD_SQL, rs -> {
+            long[] signature = signature(rs.getString("text"), rs.getString("options"));
+            if (signature != null) {
+                fresh.put(rs.getLong("id"), signature);
+            }
+        }));
+        return fresh;
+    }
+
+    @Override
+    protected void loaded(Table fresh, long millis) {
+        log.info("Signed {} questions for duplicate detection in {} ms", fresh.liveCount(), millis);
+    }
+
+    @Override
+    public void put(Collection<Question> questions) {
+        // Signed outside the lock; that is most of the work
+        List<Entry> entries = questions.stream()
+                .map(question -> new Entry(question.getId(), signature(question.getText(), question.getOptions())))
+                .toList();
+        write(target -> {
+            for (Entry entry : entries) {
+                target.remove(entry.id());
+                if (entry.signature() != null) {
+                    target.put(entry.id(), entry.signature());
+                }
+            }
+        });
+    }
+
+    @Override
+    public void remove(Collection<Long> ids) {
+        List<Long> removed = List.copyOf(ids);
+        write(target -> removed.forEach(target::remove));
+    }
+
+    // ---------------------------------------------------------------- lookups
+
+    /**
+     * Indexed questions at least as similar as the configured threshold to a
+     * question with this text and options, most similar first.
+     *
+     * @throws IllegalStateException while the index is still loading
+     */
+    public List<Match> findSimilar(String text, String options) {
+        return findSimilar(text, options, defaultThreshold);
+    }
+
+    /** @see #findSimilar(String, String) */
+    public List<Match> findSimilar(String text, String options, double threshold) {
+        long[] signature = signature(text, options);
+        checkReady();
+        return signature == null ? List.of() : read(table -> table.find(signature, threshold, maxMatches));
+    }
+
+    /**
+     * Groups the indexed questions into clusters of near-duplicates, joining
+     * any two at least {@code threshold} similar, and lists the
+     * {@code limit} largest clusters. Writes wait until it is done.
+     *
+     * @throws IllegalStateException while the index is still loading
+     */
+    public Report report(Double threshold, int limit) {
+        double minimum = threshold != null ? threshold : defaultThreshold;
+        checkReady();
+        return read(table -> table.clusters(minimum, limit));
+    }
+
+    // ---------------------------------------------------------------- signatures
+
+    /** The packed b-bit MinHash signature of the text and options, or null when there is nothing to sign. */
+    static long[] signature(String text, String options) {
+        long[] minimums = new long[HASHES];
+        Arrays.fill(minimums, Long.MAX_VALUE);
+        boolean empty = true;
+
+        // Case, punctuation and spacing are not what makes two questions different
+        String normalized = String.join(" ", QuestionSearchIndex.words(text));
+        if (!normalized.isEmpty()) {
+            int windows = Math.max(1, normalized.length() - SHINGLE_LENGTH + 1);
+            for (int start = 0; start < windows; start++) {
+                long hash = 0;
+                for (int i = start; i < Math.min(start + SHINGLE_LENGTH, normalized.length()); i++) {
+                    hash = hash * 31 + normalized.charAt(i);
+                }
+                addShingle(minimums, mix(hash));
+            }
+            empty = false;
+        }
+        if (options != null) {
+            for (String option : options.split(",")) {
+                String normalizedOption = String.join(" ", QuestionSearchIndex.words(option));
+                if (!normalizedOption.isEmpty()) {
+                    addShingle(minimums, mix(normalizedOption.hashCode() ^ OPTION_SEED));
+                    empty = false;
+                }
+            }
+        }
+        if (empty) {
+            return null;
+        }
+
+        long[] signature = new long[BANDS];
+        for (int i = 0; i < HASHES; i++) {
+            // The low bits of a minimum say little about its size, unlike the high ones, so remix before truncating
+            signature[i / 8] |= (mix(minimums[i]) & 0xFF) << (8 * (i % 8));
+        }
+        return signature;
+    }
+
+    // Each hash function is a multiply-xor permutation of the mixed shingle hash
+    private static void addShingle(long[] minimums, long shingle) {
+        for (int i = 0; i < HASHES; i++) {
+            long hash = (shingle ^ SEEDS_B[i]) * SEEDS_A[i];
+            if (hash < minimums[i]) {
+                minimums[i] = hash;
+            }
+        }
+    }
+
+    /** The splitmix64 finalizer. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int zeroBytes(long x) {
+        long low = 0x7F7F7F7F7F7F7F7FL;
+        long y = ~(((x & low) + low) | x | low);
+        return Long.bitCount(y);
+    }
+
+    // ---------------------------------------------------------------- index structure
+
+    /**
+     * Signatures by slot, and per band a chained hash table of the slots. A
+     * removed or changed question leaves a dead slot behind that lookups skip
+     * until enough pile up to compact.
+     */
+    static final class Table {
+        final Map<Long, Integer> slotsById = new HashMap<>();
+
+        long[] ids = new long[1024];
+        boolean[] live = new boolean[1024];
+        long[] signatures = new long[1024 * BANDS];
+        // BANDS tables of `buckets` heads each: slot + 1 of the newest entry in the bucket, 0 when empty
+        int[] heads = new int[1024 * BANDS];
+        // Per slot and band: slot + 1 of the next older entry in the same bucket
+        int[] next = new int[1024 * BANDS];
+        int buckets = 1024;
+        int size;
+        int dead;
+
+        int liveCount() {
+            return size - dead;
+        }
+
+        private int head(int band, long key) {
+            return band * buckets + (int) (mix(key) & (buckets - 1));
+        }
+
+        void put(long id, long[] signature) {
+            remove(id);
+            if (size == ids.length) {
+                grow();
+            }
+            int slot = size++;
+            ids[slot] = id;
+            live[slot] = true;
+            System.arraycopy(signature, 0, signatures, slot * BANDS, BANDS);
+            slotsById.put(id, slot);
+            link(slot);
+        }
+
+        void remove(long id) {
+            Integer slot = slotsById.remove(id);
+            if (slot == null) {
+                return;
+            }
+            live[slot] = false;
+            dead++;
+            if (dead > 1024 && dead > size / 2) {
+                compact();
+            }
+        }
+
+        private void link(int slot) {
+            for (int band = 0; band < BANDS; band++) {
+                int head = head(band, signatures[slot * BANDS + band]);
+                next[slot * BANDS + band] = heads[head];
+                heads[head] = slot + 1;
+            }
+        }
+
+        /** Rebuilds every chain from the live slots, oldest first so the newest end up at the heads. */
+        private void relink() {
+            heads = new int[buckets * BANDS];
+            for (int slot = 0; slot < size; slot++) {
+                if (live[slot]) {
+                    link(slot);
+                }
+            }
+        }
+
+        // The tables keep one bucket per slot, so chains stay about one entry long between near-duplicates
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            live = Arrays.copyOf(live, capacity);
+            signatures = Arrays.copyOf(signatures, capacity * BANDS);
+            next = Arrays.copyOf(next, capacity * BANDS);
+            buckets = capacity;
+            relink();
+        }
+
+        private void compact() {
+            int kept = 0;
+            for (int slot = 0; slot < size; slot++) {
+                if (!live[slot]) {
+                    continue;
+                }
+                ids[kept] = ids[slot];
+                System.arraycopy(signatures, slot * BANDS, signatures, kept * BANDS, BANDS);
+                live[kept] = true;
+                slotsById.put(ids[kept], kept);
+                kept++;
+            }
+            Arrays.fill(live, kept, size, false);
+            size = kept;
+            dead = 0;
+            relink();
+        }
+
+        /** The estimated Jaccard similarity of a signature and a slot's. */
+        private double similarity(long[] signature, int offset, int slot) {
+            int agreeing = 0;
+            for (int band = 0; band < BANDS; band++) {
+                agreeing += zeroBytes(signature[offset + band] ^ signatures[slot * BANDS + band]);
+            }
+            // Unrelated hashes still agree on 8 bits one time in 256
+            double chance = 1.0 / 256;
+            return Math.max(0, ((double) agreeing / HASHES - chance) / (1 - chance));
+        }
+
+        List<Match> find(long[] signature, double threshold, int limit) {
+            List<Match> matches = new ArrayList<>();
+            Set<Integer> compared = new HashSet<>();
+            int probes = 0;
+            for (int band = 0; band < BANDS; band++) {
+                long key = signature[band];
+                for (int entry = heads[head(band, key)]; entry != 0 && probes < MAX_PROBES;
+                        entry = next[(entry - 1) * BANDS + band]) {
+                    probes++;
+                    int slot = entry - 1;
+                    if (!live[slot] || signatures[slot * BANDS + band] != key || !compared.add(slot)) {
+                        continue;
+                    }
+                    double similarity = similarity(signature, 0, slot);
+                    if (similarity >= threshold) {
+                        matches.add(new Match(ids[slot], similarity));
+                    }
+                }
+            }
+            matches.sort(Comparator.comparingDouble(Match::similarity).reversed()
+                    .thenComparingLong(Match::questionId));
+            return matches.size() > limit ? List.copyOf(matches.subList(0, limit)) : matches;
+        }
+
+        Report clusters(double threshold, int limit) {
+            int[] parent = new int[size];
+            for (int slot = 0; slot < size; slot++) {
+                parent[slot] = slot;
+            }
+            for (int slot = 0; slot < size; slot++) {
+                if (!live[slot]) {
+                    continue;
+                }
+                for (int band = 0; band < BANDS; band++) {
+                    long key = signatures[slot * BANDS + band];
+                    int compared = 0;
+                    for (int entry = heads[head(band, key)]; entry != 0 && compared < REPORT_PROBES;
+                            entry = next[(entry - 1) * BANDS + band]) {
+                        int other = entry - 1;
+                        if (other == slot || !live[other] || signatures[other * BANDS + band] != key) {
+                            continue;
+                        }
+                        compared++;
+                        int root = find(parent, slot);
+                        int otherRoot = find(parent, other);
+                        if (root != otherRoot && similarity(signatures, slot * BANDS, other) >= threshold) {
+                            parent[Math.max(root, otherRoot)] = Math.min(root, otherRoot);
+                        }
+                    }
+                }
+            }
+
+            // Counted first so the many questions without a duplicate never get a list
+            int[] counts = new int[size];
+            for (int slot = 0; slot < size; slot++) {
+                if (live[slot]) {
+                    counts[find(parent, slot)]++;
+                }
+            }
+            Map<Integer, List<Long>> byRoot = new HashMap<>();
+            int questions = 0;
+            for (int slot = 0; slot < size; slot++) {
+                int root = find(parent, slot);
+                if (live[slot] && counts[root] > 1) {
+                    byRoot.computeIfAbsent(root, r -> new ArrayList<>(counts[r])).add(ids[slot]);
+                    questions++;
+                }
+            }
+            List<List<Long>> clusters = new ArrayList<>(byRoot.values());
+            clusters.forEach(members -> members.sort(null));
+            clusters.sort(Comparator.<List<Long>>comparingInt(List::size).reversed()
+                    .thenComparing(members -> members.get(0)));
+            return new Report(threshold, clusters.size(), questions,
+                    List.copyOf(clusters.subList(0, Math.min(limit, clusters.size()))));
+        }
+
+        private static int find(int[] parent, int slot) {
+            while (parent[slot] != slot) {
+                parent[slot] = parent[parent[slot]];
+                slot = parent[slot];
+            }
+            return slot;
+        }
+    }
+}
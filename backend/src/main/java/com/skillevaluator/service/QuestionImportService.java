@@ -0,0 +1,616 @@
+package com.skillevaluator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillevaluator.model.Difficulty;
+import com.skillevaluator.model.Question;
+import com.skillevaluator.model.QuestionType;
+import com.skillevaluator.repository.QuestionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk question import from CSV or NDJSON uploads. Rows are parsed one at a
+ * time as the upload arrives, validated, and upserted a chunk per
+ * transaction, so neither the file nor the import is ever held in memory.
+ * Every imported question carries an import key (the row's {@code key}, or a
+ * hash of its type and text) and rows whose key already exists update that
+ * question, so importing the same file twice changes nothing. Progress and
+ * per-row errors are written back as NDJSON while the import runs.
+ */
+@Service
+public class QuestionImportService {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final List<String> COLUMNS = List.of("key", "text", "type", "skill", "difficulty", "options",
+            "correctAnswer", "explanation", "points");
+
+    private static final Set<String> REQUIRED = Set.of("text", "type", "skill", "difficulty", "correctAnswer");
+
+    // A stray quote would otherwise swallow the rest of the file into one field
+    private static final int MAX_RECORD_CHARS = 64 * 1024;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private ExamSnapshotCache examSnapshotCache;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    private TransactionTemplate transaction;
+
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /** One record of the upload; {@code error} is set when it could not be parsed into fields. */
+    public record Row(long line, Map<String, String> fields, String error) {
+    }
+
+    public interface RowReader {
+        /** The next record, or null at the end of the upload. */
+        Row next() throws IOException;
+    }
+
+    private record Pending(long line, String key, Question question) {
+    }
+
+    private record ChunkResult(int inserted, int updated, int unchanged, List<Long> changedIds) {
+    }
+
+    private static final class Progress {
+        long rows;
+        long inserted;
+        long updated;
+        long unchanged;
+        long failed;
+        long reportedErrors;
+    }
+
+    /**
+     * Starts reading the upload. A CSV header is read here, so an upload that
+     * cannot be imported at all is refused with an IllegalArgumentException
+     * before any response is written.
+     */
+    public RowReader open(InputStream in, Format format) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        return format == Format.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+    }
+
+    /**
+     * Imports every row, writing an {@code error} line per rejected row (up to
+     * the configured limit), a {@code progress} line per chunk and a final
+     * {@code summary} line.
+     */
+    public void importQuestions(RowReader rows, OutputStream out) throws IOException {
+        Writer report = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        Progress progress = new Progress();
+        long start = System.nanoTime();
+        String failure = null;
+
+        List<Pending> chunk = new ArrayList<>(chunkSize);
+        try {
+            for (Row row = rows.next(); row != null; row = rows.next()) {
+                progress.rows++;
+                List<String> errors = new ArrayList<>();
+                Question question = row.error() != null ? null : toQuestion(row.fields(), errors);
+                if (row.error() != null) {
+                    errors.add(row.error());
+                }
+                if (!errors.isEmpty()) {
+                    reject(report, progress, row.line(), errors);
+                    continue;
+                }
+                String key = row.fields().get("key");
+                chunk.add(new Pending(row.line(), key != null ? key : contentKey(question), question));
+                if (chunk.size() == chunkSize) {
+                    save(chunk, report, progress);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (IllegalStateException e) {
+            // The upload itself is malformed past this point; what was read before it is still saved
+            failure = e.getMessage();
+        }
+        if (!chunk.isEmpty()) {
+            save(chunk, report, progress);
+        }
+
+        Map<String, Object> summary = counts("summary", progress);
+        summary.put("completed", failure == null);
+        if (failure != null) {
+            summary.put("error", failure);
+        }
+        summary.put("errorsReported", progress.reportedErrors);
+        summary.put("elapsedMs", (System.nanoTime() - start) / 1_000_000);
+        writeLine(report, summary);
+        report.flush();
+    }
+
+    private void save(List<Pending> chunk, Writer report, Progress progress) throws IOException {
+        try {
+            add(progress, transaction.execute(status -> upsert(chunk)));
+        } catch (RuntimeException chunkFailure) {
+            // Retry one by one so a single bad row does not cost the rest of the chunk
+            for (Pending pending : chunk) {
+                try {
+                    add(progress, transaction.execute(status -> upsert(List.of(pending))));
+                } catch (RuntimeException e) {
+                    String message = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+                    reject(report, progress, pending.line(), List.of("Could not be saved: " + message));
+                }
+            }
+        }
+        writeLine(report, counts("progress", progress));
+        report.flush();
+    }
+
+    private ChunkResult upsert(List<Pending> chunk) {
+        Map<String, Question> byKey = new HashMap<>();
+        for (Question existing : questionRepository
+                .findByImportKeyIn(chunk.stream().map(Pending::key).collect(Collectors.toSet()))) {
+            byKey.put(existing.getImportKey(), existing);
+        }
+
+        List<Question> inserts = new ArrayList<>();
+        List<Long> changedIds = new ArrayList<>();
+        List<Question> saved = new ArrayList<>();
+        int updated = 0;
+        int unchanged = 0;
+        for (Pending pending : chunk) {
+            Question current = byKey.get(pending.key());
+            if (current == null) {
+                // A fresh entity, so a retry after a failed chunk starts without an assigned id
+                current = new Question();
+                copy(pending.question(), current);
+                current.setImportKey(pending.key());
+                byKey.put(pending.key(), current);
+                inserts.add(current);
+                saved.add(current);
+            } else if (copy(pending.question(), current)) {
+                updated++;
+                saved.add(current);
+                if (current.getId() != null) {
+                    changedIds.add(current.getId());
+                }
+            } else {
+                unchanged++;
+            }
+        }
+        // Inserts and dirty-checked updates go out as JDBC batches
+        questionRepository.saveAll(inserts);
+        entityManager.flush();
+        // With open-in-view the whole import shares one persistence context; keep it to a chunk
+        entityManager.clear();
+        // Indexed once the chunk commits, so a chunk that is rolled back and retried row by row is not
+        eventPublisher.publishEvent(QuestionsChangedEvent.saved(saved));
+        return new ChunkResult(inserts.size(), updated, unchanged, changedIds);
+    }
+
+    private void add(Progress progress, ChunkResult result) {
+        progress.inserted += result.inserted();
+        progress.updated += result.updated();
+        progress.unchanged += result.unchanged();
+        if (!result.changedIds().isEmpty()) {
+            examSnapshotCache.evictQuestions(result.changedIds());
+            answerKeyCache.evictQuestions(result.changedIds());
+        }
+    }
+
+    private void reject(Writer report, Progress progress, long line, List<String> errors) throws IOException {
+        progress.failed++;
+        if (progress.reportedErrors >= maxReportedErrors) {
+            return;
+        }
+        progress.reportedErrors++;
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("type", "error");
+        error.put("line", line);
+        error.put("errors", errors);
+        writeLine(report, error);
+    }
+
+    private Map<String, Object> counts(String type, Progress progress) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("type", type);
+        counts.put("rows", progress.rows);
+        counts.put("inserted", progress.inserted);
+        counts.put("updated", progress.updated);
+        counts.put("unchanged", progress.unchanged);
+        counts.put("failed", progress.failed);
+        return counts;
+    }
+
+    private void writeLine(Writer report, Map<String, Object> line) throws IOException {
+        report.write(objectMapper.writeValueAsString(line));
+        report.write('\n');
+    }
+
+    // ---------- Validation ----------
+
+    private Question toQuestion(Map<String, String> fields, List<String> errors) {
+        Question question = new Question();
+        question.setText(text(fields, "text", 1000, errors));
+        question.setType(enumValue(QuestionType.class, fields.get("type"), "type", errors));
+        question.setSkill(text(fields, "skill", 255, errors));
+        question.setDifficulty(enumValue(Difficulty.class, fields.get("difficulty"), "difficulty", errors));
+        question.setOptions(text(fields, "options", 2000, errors));
+        question.setCorrectAnswer(text(fields, "correctAnswer", 500, errors));
+        question.setExplanation(text(fields, "explanation", 1000, errors));
+        text(fields, "key", 64, errors);
+
+        String points = fields.get("points");
+        if (points == null) {
+            question.setPoints(1);
+        } else {
+            try {
+                question.setPoints(Integer.parseInt(points));
+                if (question.getPoints() < 1) {
+                    errors.add("points must be at least 1");
+                }
+            } catch (NumberFormatException e) {
+                errors.add("points must be a whole number");
+            }
+        }
+
+        if (question.getType() == QuestionType.MCQ && (question.getOptions() == null
+                || Arrays.stream(question.getOptions().split(",")).filter(o -> !o.isBlank()).count() < 2)) {
+            errors.add("options must list at least two choices for an MCQ");
+        }
+        if (question.getType() == QuestionType.TRUE_FALSE && question.getCorrectAnswer() != null
+                && !question.getCorrectAnswer().equalsIgnoreCase("true")
+                && !question.getCorrectAnswer().equalsIgnoreCase("false")) {
+            errors.add("correctAnswer must be true or false");
+        }
+        return question;
+    }
+
+    private static String text(Map<String, String> fields, String column, int maxLength, List<String> errors) {
+        String value = fields.get(column);
+        if (value == null && REQUIRED.contains(column)) {
+            errors.add(column + " is required");
+        } else if (value != null && value.length() > maxLength) {
+            errors.add(column + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private static <E extends Enum<E>> E enumValue(Class<E> type, String value, String column, List<String> errors) {
+        if (value == null) {
+            errors.add(column + " is required");
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT).replace('-', '_').replace(' ', '_'));
+        } catch (IllegalArgumentException e) {
+            errors.add(column + " must be one of " + Arrays.toString(type.getEnumConstants()));
+            return null;
+        }
+    }
+
+    /** Copies the imported fields; true if any of them changed. */
+    private static boolean copy(Question from, Question to) {
+        boolean changed = !Objects.equals(from.getText(), to.getText())
+                || from.getType() != to.getType()
+                || !Objects.equals(from.getSkill(), to.getSkill())
+                || from.getDifficulty() != to.getDifficulty()
+                || !Objects.equals(from.getOptions(), to.getOptions())
+                || !Objects.equals(from.getCorrectAnswer(), to.getCorrectAnswer())
+                || !Objects.equals(from.getExplanation(), to.getExplanation())
+                || !Objects.equals(from.getPoints(), to.getPoints());
+        if (changed) {
+            to.setText(from.getText());
+            to.setType(from.getType());
+            to.setSkill(from.getSkill());
+            to.setDifficulty(from.getDifficulty());
+            to.setOptions(from.getOptions());
+            to.setCorrectAnswer(from.getCorrectAnswer());
+            to.setExplanation(from.getExplanation());
+            to.setPoints(from.getPoints());
+        }
+        return changed;
+    }
+
+    // Rows without a key are identified by what they ask, so fixing an answer updates the question
+    private static String contentKey(Question question) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(question.getType().name().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(question.getText().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ---------- Parsing ----------
+
+    // Header and field names match case-insensitively, ignoring '_', '-' and spaces
+    private static String column(String name) {
+        String normalized = name.replaceAll("[\\s_-]", "").toLowerCase(Locale.ROOT);
+        for (String column : COLUMNS) {
+            if (column.toLowerCase(Locale.ROOT).equals(normalized)) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    private static String blankToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /** RFC 4180 CSV with a header row; quoted fields may contain commas, quotes and line breaks. */
+    private static final class CsvRowReader implements RowReader {
+        private final Reader reader;
+        private final String[] header;
+        private long line = 1;
+        private int pushback = -2;
+        private String recordError;
+
+        CsvRowReader(Reader reader) throws IOException {
+            this.reader = reader;
+            List<String> names = readRecord();
+            if (names == null) {
+                throw new IllegalArgumentException("The upload is empty");
+            }
+            // Unknown columns (e.g. ids from another platform) are ignored
+            header = new String[names.size()];
+            for (int i = 0; i < names.size(); i++) {
+                header[i] = column(names.get(i).replace("\uFEFF", ""));
+            }
+            List<String> missing = REQUIRED.stream().filter(c -> !Arrays.asList(header).contains(c)).sorted().toList();
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("Missing columns: " + String.join(", ", missing));
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            while (true) {
+                long start = line;
+                recordError = null;
+                List<String> values = readRecord();
+                if (values == null) {
+                    return null;
+                }
+                if (values.size() == 1 && values.get(0).isBlank()) {
+                    continue;
+                }
+                if (recordError != null) {
+                    return new Row(start, Map.of(), recordError);
+                }
+                if (values.size() != header.length) {
+                    return new Row(start, Map.of(),
+                            "Expected " + header.length + " fields but found " + values.size());
+                }
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < header.length; i++) {
+                    String value = blankToNull(values.get(i));
+                    if (header[i] != null && value != null) {
+                        fields.put(header[i], value);
+                    }
+                }
+                return new Row(start, fields, null);
+            }
+        }
+
+        // One record, or null at the end of the upload
+        private List<String> readRecord() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            long start = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int chars = 0;
+            while (true) {
+                if (c == -1) {
+                    if (quoted) {
+                        recordError = "Unterminated quoted field";
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                }
+                if (++chars > MAX_RECORD_CHARS) {
+                    throw new IllegalStateException(
+                            "Record on line " + start + " is longer than " + MAX_RECORD_CHARS + " characters");
+                }
+                if (quoted) {
+                    if (c == '"') {
+                        int next = read();
+                        if (next != '"') {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                    }
+                    field.append((char) c);
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r') {
+                    if (c == '\r') {
+                        int next = read();
+                        if (next != '\n') {
+                            pushback = next;
+                        }
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (pushback != -2) {
+                int c = pushback;
+                pushback = -2;
+                return c;
+            }
+            int c = reader.read();
+            if (c == '\n') {
+                line++;
+            }
+            return c;
+        }
+    }
+
+    /**
+     * One JSON object per line; {@code options} may be a string or an array.
+     * A line longer than {@link #MAX_RECORD_CHARS} is rejected as a row and
+     * skipped without being buffered, so the rest of the upload still imports.
+     */
+    private final class NdjsonRowReader implements RowReader {
+        private final Reader reader;
+        private final StringBuilder text = new StringBuilder();
+        private long line;
+
+        NdjsonRowReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            int end;
+            while ((end = readLine()) != -1) {
+                line++;
+                if (end == 0) {
+                    return new Row(line, Map.of(), "Line is longer than " + MAX_RECORD_CHARS + " characters");
+                }
+                if (text.toString().isBlank()) {
+                    continue;
+                }
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(text.toString());
+                } catch (JsonProcessingException e) {
+                    return new Row(line, Map.of(), "Not valid JSON");
+                }
+                if (!node.isObject()) {
+                    return new Row(line, Map.of(), "Expected a JSON object");
+                }
+
+                Map<String, String> fields = new HashMap<>();
+                for (Map.Entry<String, JsonNode> field : node.properties()) {
+                    String column = column(field.getKey());
+                    JsonNode value = field.getValue();
+                    if (column == null || value.isNull()) {
+                        continue;
+                    }
+                    String stringValue;
+                    if (value.isArray()) {
+                        List<String> items = new ArrayList<>();
+                        value.forEach(item -> items.add(item.asText()));
+                        stringValue = String.join(", ", items);
+                    } else if (value.isValueNode()) {
+                        stringValue = value.asText();
+                    } else {
+                        return new Row(line, Map.of(), field.getKey() + " must be a string");
+                    }
+                    if (blankToNull(stringValue) != null) {
+                        fields.put(column, blankToNull(stringValue));
+                    }
+                }
+                return new Row(line, fields, null);
+            }
+            return null;
+        }
+
+        // Reads the next line into text: -1 at the end of the upload, 0 if it was too long, 1 otherwise
+        private int readLine() throws IOException {
+            text.setLength(0);
+            int c = reader.read();
+            if (c == -1) {
+                return -1;
+            }
+            boolean tooLong = false;
+            for (; c != -1 && c != '\n'; c = reader.read()) {
+                if (tooLong) {
+                    continue;
+                }
+                if (text.length() == MAX_RECORD_CHARS) {
+                    tooLong = true;
+                    text.setLength(0);
+                } else {
+                    text.append((char) c);
+                }
+            }
+            if (tooLong) {
+                return 0;
+            }
+            if (!text.isEmpty() && text.charAt(text.length() - 1) == '\r') {
+                text.setLength(text.length() - 1);
+            }
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.skillevaluator.service;
+
+import com.skillevaluator.model.Difficulty;
+import com.skillevaluator.model.Question;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws random questions of a skill and difficulty without asking the
+ * database to sort the whole bank. Question ids are kept in memory in one
+ * sorted pool per (skill, difficulty); a draw picks k distinct positions of
+ * a pool in O(k) expected time, skipping excluded ids such as the questions
+ * a candidate has already seen. Pools are sorted by id, so a seeded draw
+ * picks the same questions on every instance as long as the bank is the
+ * same.
+ *
+ * A {@link ReloadableQuestionIndex}, like {@link QuestionSearchIndex}.
+ */
+@Service
+public class QuestionSampler extends ReloadableQuestionIndex<QuestionSampler.Pools> {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionSampler.class);
+
+    private static final String LOAD_SQL = "SELECT id, skill, difficulty FROM questions ORDER BY id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private record Entry(long id, String skill, Difficulty difficulty) {
+    }
+
+    public QuestionSampler() {
+        super("Question sampler", new Pools());
+    }
+
+    @Scheduled(initialDelayString = "${sampler.refresh-interval-ms:600000}",
+            fixedDelayString = "${sampler.refresh-interval-ms:600000}")
+    void refresh() {
+        rebuild();
+    }
+
+    @Override
+    protected Pools load() {
+        Pools fresh = new Pools();
+        // Ids arrive in order, so every add is an append
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            fresh.pool(rs.getString("skill"), Difficulty.valueOf(rs.getString("difficulty"))).add(rs.getLong("id"));
+        });
+        return fresh;
+    }
+
+    @Override
+    protected void loaded(Pools fresh, long millis) {
+        log.info("Loaded {} questions into {} sampling pools in {} ms", fresh.size(),
+                fresh.bySkill.size() * Difficulty.values().length, millis);
+    }
+
+    /** Files the questions under their current skill and difficulty. */
+    @Override
+    public void put(Collection<Question> questions) {
+        List<Entry> entries = questions.stream()
+                .map(question -> new Entry(question.getId(), question.getSkill(), question.getDifficulty()))
+                .toList();
+        write(target -> {
+            for (Entry entry : entries) {
+                target.remove(entry.id());
+                target.pool(entry.skill(), entry.difficulty()).add(entry.id());
+            }
+        });
+    }
+
+    @Override
+    public void remove(Collection<Long> ids) {
+        List<Long> removed = List.copyOf(ids);
+        write(target -> removed.forEach(target::remove));
+    }
+
+    /**
+     * Up to {@code count} distinct question ids of the skill and difficulty, in
+     * random order, none of them in {@code excluded}. Fewer come back when the
+     * pool runs out. With a seed the draw is repeatable; without one it uses
+     * the thread's generator.
+     *
+     * @throws IllegalStateException while the pools are still loading
+     */
+    public List<Long> sample(String skill, Difficulty difficulty, int count, Long seed, Set<Long> excluded) {
+        RandomGenerator random = seed != null ? new SplittableRandom(seed) : ThreadLocalRandom.current();
+        checkReady();
+        return read(pools -> {
+            Pool pool = pools.find(skill, difficulty);
+            return pool == null ? List.of() : pool.sample(count, random, excluded);
+        });
+    }
+
+    static final class Pools {
+        final Map<String, Pool[]> bySkill = new HashMap<>();
+
+        Pool pool(String skill, Difficulty difficulty) {
+            Pool[] pools = bySkill.computeIfAbsent(skill, s -> new Pool[Difficulty.values().length]);
+            if (pools[difficulty.ordinal()] == null) {
+                pools[difficulty.ordinal()] = new Pool();
+            }
+            return pools[difficulty.ordinal()];
+        }
+
+        Pool find(String skill, Difficulty difficulty) {
+            Pool[] pools = bySkill.get(skill);
+            return pools == null ? null : pools[difficulty.ordinal()];
+        }
+
+        // Updates may have moved the question, so every pool is checked; there are only skills x 3 of them
+        void remove(long id) {
+            for (Pool[] pools : bySkill.values()) {
+                for (Pool pool : pools) {
+                    if (pool != null && pool.remove(id)) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        long size() {
+            long size = 0;
+            for (Pool[] pools : bySkill.values()) {
+                for (Pool pool : pools) {
+                    size += pool == null ? 0 : pool.size;
+                }
+            }
+            return size;
+        }
+    }
+
+    /** A sorted set of question ids. */
+    private static final class Pool {
+        long[] ids = new long[16];
+        int size;
+
+        void add(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        List<Long> sample(int count, RandomGenerator random, Set<Long> excluded) {
+            int excludedHere = 0;
+            for (Long id : excluded) {
+                if (Arrays.binarySearch(ids, 0, size, id) >= 0) {
+                    excludedHere++;
+                }
+            }
+            int wanted = Math.min(count, size - excludedHere);
+            if (wanted <= 0) {
+                return List.of();
+            }
+
+            List<Long> drawn = new ArrayList<>(wanted);
+            if ((wanted + excludedHere) * 2 <= size) {
+                // Sparse: at least half of every pick is still free, so rejection takes under two tries on average
+                Set<Integer> tried = new HashSet<>(wanted * 2);
+                while (drawn.size() < wanted) {
+                    int at = random.nextInt(size);
+                    if (tried.add(at) && !excluded.contains(ids[at])) {
+                        drawn.add(ids[at]);
+                    }
+                }
+                return drawn;
+            }
+
+            // Dense: the draw is a good part of the pool anyway, so shuffle just the front of a copy
+            long[] free = new long[size - excludedHere];
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (!excluded.contains(ids[i])) {
+                    free[n++] = ids[i];
+                }
+            }
+            for (int i = 0; i < wanted; i++) {
+                int at = i + random.nextInt(n - i);
+                long id = free[at];
+                free[at] = free[i];
+                free[i] = id;
+                drawn.add(id);
+            }
+            return drawn;
+        }
+    }
+}
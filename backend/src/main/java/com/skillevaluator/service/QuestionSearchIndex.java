@@ -0,0 +1,577 @@
+package com.skillevaluator.service;
+
+import com.skillevaluator.dto.QuestionPage;
+import com.skillevaluator.dto.QuestionSearchCriteria;
+import com.skillevaluator.model.Difficulty;
+import com.skillevaluator.model.Question;
+import com.skillevaluator.model.QuestionType;
+import com.skillevaluator.repository.QuestionRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory inverted index over the question bank, behind the recruiter's
+ * question search. Each question has a slot holding its id and facet values,
+ * and each word of its text and explanation a sorted postings list of the
+ * slots containing it. A query walks the shortest list among its words,
+ * checks the others by binary search, and counts facets and keeps the page in
+ * that same pass, so its cost follows the number of matches rather than the
+ * size of the bank, on any database.
+ *
+ * The index is a {@link ReloadableQuestionIndex}, kept current as questions
+ * are written. A changed question moves to a new slot and its old one is
+ * skipped as dead until enough pile up to compact.
+ */
+@Service
+public class QuestionSearchIndex extends ReloadableQuestionIndex<QuestionSearchIndex.Segment> {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionSearchIndex.class);
+
+    private static final String LOAD_SQL = "SELECT id, text, explanation, skill, difficulty, type FROM questions";
+
+    // Too common in question text to narrow anything down
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "are", "as", "at", "be", "by", "for",
+            "from", "how", "in", "is", "it", "of", "on", "or", "that", "the", "this", "to", "what", "which", "with");
+
+    private static final int MAX_WORD_LENGTH = 64;
+
+    private static final Difficulty[] DIFFICULTIES = Difficulty.values();
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Value("${search.questions.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${search.questions.max-prefix-words:1000}")
+    private int maxPrefixWords;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+
+    public QuestionSearchIndex() {
+        super("Question search", new Segment());
+    }
+
+    @PostConstruct
+    void init() {
+        // A dedicated template so the fetch size only applies to the load
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /** The indexed fields of a question, copied so later changes to the entity cannot leak in. */
+    private record Doc(long id, String text, String explanation, String skill, Difficulty difficulty,
+            QuestionType type) {
+
+        static Doc of(Question question) {
+            return new Doc(question.getId(), question.getText(), question.getExplanation(), question.getSkill(),
+                    question.getDifficulty(), question.getType());
+        }
+    }
+
+    private record Query(Set<String> words, List<String> prefixes) {
+    }
+
+    private record Hits(long[] ids, boolean more, long total, Map<String, Long> skills,
+            Map<String, Long> difficulties) {
+    }
+
+    // ---------------------------------------------------------------- lifecycle
+
+    @Scheduled(initialDelayString = "${search.questions.refresh-interval-ms:600000}",
+            fixedDelayString = "${search.questions.refresh-interval-ms:600000}")
+    void refresh() {
+        rebuild();
+    }
+
+    @Override
+    protected Segment load() {
+        Segment fresh = new Segment();
+        // PostgreSQL only streams with a cursor inside a transaction; otherwise it buffers the whole result
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(LOAD_SQL, rs -> {
+            fresh.put(new Doc(rs.getLong("id"), rs.getString("text"), rs.getString("explanation"),
+                    rs.getString("skill"), Difficulty.valueOf(rs.getString("difficulty")),
+                    QuestionType.valueOf(rs.getString("type"))));
+        }));
+        fresh.trim();
+        return fresh;
+    }
+
+    @Override
+    protected void loaded(Segment fresh, long millis) {
+        log.info("Indexed {} questions ({} words) in {} ms", fresh.liveCount(), fresh.terms.size(), millis);
+    }
+
+    @Override
+    public void put(Collection<Question> questions) {
+        List<Doc> docs = questions.stream().map(Doc::of).toList();
+        write(segment -> docs.forEach(segment::put));
+    }
+
+    @Override
+    public void remove(Collection<Long> ids) {
+        List<Long> removed = List.copyOf(ids);
+        write(segment -> removed.forEach(segment::remove));
+    }
+
+    // ---------------------------------------------------------------- search
+
+    /**
+     * @throws IllegalArgumentException for an invalid cursor or a prefix matching too many words
+     * @throws IllegalStateException    while the index is still loading
+     */
+    public QuestionPage search(QuestionSearchCriteria criteria) {
+        long before = decodeCursor(criteria.getCursor());
+        int size = criteria.pageSize();
+        Query query = parse(criteria.getQ());
+
+        checkReady();
+        Hits hits = read(segment -> segment.search(query, criteria, before, size, maxPrefixWords));
+
+        // Only the page itself comes from the database, by primary key
+        Map<Long, Question> byId = new HashMap<>();
+        for (Question question : questionRepository.findAllById(Arrays.stream(hits.ids()).boxed().toList())) {
+            byId.put(question.getId(), question);
+        }
+        List<Question> items = new ArrayList<>(hits.ids().length);
+        for (long id : hits.ids()) {
+            Question question = byId.get(id);
+            if (question != null) { // deleted through another instance since the last rebuild
+                items.add(question);
+            }
+        }
+        String nextCursor = hits.more() ? encodeCursor(hits.ids()[hits.ids().length - 1]) : null;
+        return new QuestionPage(items, nextCursor, hits.total(), hits.skills(), hits.difficulties());
+    }
+
+    private static Query parse(String q) {
+        Set<String> words = new LinkedHashSet<>();
+        List<String> prefixes = new ArrayList<>();
+        if (q == null) {
+            return new Query(words, prefixes);
+        }
+        for (String term : q.trim().split("\\s+")) {
+            List<String> termWords = words(term);
+            boolean prefix = term.endsWith("*") && !termWords.isEmpty();
+            for (int i = 0; i < termWords.size(); i++) {
+                String word = termWords.get(i);
+                if (prefix && i == termWords.size() - 1) {
+                    prefixes.add(word);
+                } else if (!STOP_WORDS.contains(word)) {
+                    words.add(word);
+                }
+            }
+        }
+        return new Query(words, prefixes);
+    }
+
+    /** Lower-cased runs of letters and digits; everything else separates words. */
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (word.length() < MAX_WORD_LENGTH) {
+                    word.append(Character.toLowerCase(c));
+                }
+            } else if (!word.isEmpty()) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    private static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    private static String encodeCursor(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // ---------------------------------------------------------------- index structure
+
+    /** Slots of the questions containing one word, ascending. */
+    private static final class Postings {
+        int[] slots = new int[2];
+        int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+    }
+
+    static final class Segment {
+        final TreeMap<String, Postings> terms = new TreeMap<>();
+        final Map<Long, Integer> slotsById = new HashMap<>();
+        final List<String> skillNames = new ArrayList<>();
+        final Map<String, Integer> skillIds = new HashMap<>();
+
+        long[] ids = new long[1024];
+        int[] skills = new int[1024];
+        byte[] difficulties = new byte[1024];
+        byte[] types = new byte[1024];
+        boolean[] live = new boolean[1024];
+        int size;
+        int dead;
+
+        int liveCount() {
+            return size - dead;
+        }
+
+        void put(Doc doc) {
+            remove(doc.id());
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                skills = Arrays.copyOf(skills, capacity);
+                difficulties = Arrays.copyOf(difficulties, capacity);
+                types = Arrays.copyOf(types, capacity);
+                live = Arrays.copyOf(live, capacity);
+            }
+            // New slots are always the highest, which keeps every postings list sorted
+            int slot = size++;
+            ids[slot] = doc.id();
+            skills[slot] = skillIds.computeIfAbsent(doc.skill(), skill -> {
+                skillNames.add(skill);
+                return skillNames.size() - 1;
+            });
+            difficulties[slot] = (byte) doc.difficulty().ordinal();
+            types[slot] = (byte) doc.type().ordinal();
+            live[slot] = true;
+            slotsById.put(doc.id(), slot);
+
+            Set<String> docWords = new HashSet<>(words(doc.text()));
+            docWords.addAll(words(doc.explanation()));
+            for (String word : docWords) {
+                if (!STOP_WORDS.contains(word)) {
+                    terms.computeIfAbsent(word, w -> new Postings()).add(slot);
+                }
+            }
+        }
+
+        void remove(long id) {
+            Integer slot = slotsById.remove(id);
+            if (slot == null) {
+                return;
+            }
+            live[slot] = false;
+            dead++;
+            if (dead > 1024 && dead > size / 2) {
+                compact();
+            }
+        }
+
+        /** Drops dead slots from the arrays and the postings, keeping the order of the rest. */
+        private void compact() {
+            int[] moved = new int[size];
+            int next = 0;
+            for (int slot = 0; slot < size; slot++) {
+                if (!live[slot]) {
+                    moved[slot] = -1;
+                    continue;
+                }
+                moved[slot] = next;
+                ids[next] = ids[slot];
+                skills[next] = skills[slot];
+                difficulties[next] = difficulties[slot];
+                types[next] = types[slot];
+                live[next] = true;
+                slotsById.put(ids[next], next);
+                next++;
+            }
+            Arrays.fill(live, next, size, false);
+            size = next;
+            dead = 0;
+
+            Iterator<Postings> postings = terms.values().iterator();
+            while (postings.hasNext()) {
+                Postings list = postings.next();
+                int kept = 0;
+                for (int i = 0; i < list.size; i++) {
+                    int slot = moved[list.slots[i]];
+                    if (slot >= 0) {
+                        list.slots[kept++] = slot;
+                    }
+                }
+                list.size = kept;
+                if (kept == 0) {
+                    postings.remove();
+                }
+            }
+        }
+
+        /** Gives back the growth headroom of a freshly loaded segment. */
+        void trim() {
+            for (Postings list : terms.values()) {
+                list.slots = Arrays.copyOf(list.slots, list.size);
+            }
+        }
+
+        Hits search(Query query, QuestionSearchCriteria criteria, long before, int pageSize, int maxPrefixWords) {
+            List<Postings> lists = new ArrayList<>();
+            for (String word : query.words()) {
+                Postings list = terms.get(word);
+                if (list == null) {
+                    return facets(new Matches(this, criteria, pageSize));
+                }
+                lists.add(list);
+            }
+            for (String prefix : query.prefixes()) {
+                Postings list = union(prefix, maxPrefixWords);
+                if (list.size == 0) {
+                    return facets(new Matches(this, criteria, pageSize));
+                }
+                lists.add(list);
+            }
+
+            Matches matches = new Matches(this, criteria, pageSize);
+            if (lists.isEmpty()) {
+                for (int slot = 0; slot < size; slot++) {
+                    matches.visit(slot, before);
+                }
+                return facets(matches);
+            }
+
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            Postings shortest = lists.get(0);
+            // Candidates ascend, so each other list is searched from where the previous lookup ended
+            int[] from = new int[lists.size()];
+            candidates: for (int i = 0; i < shortest.size; i++) {
+                int slot = shortest.slots[i];
+                for (int l = 1; l < lists.size(); l++) {
+                    Postings list = lists.get(l);
+                    int found = Arrays.binarySearch(list.slots, from[l], list.size, slot);
+                    if (found < 0) {
+                        from[l] = -found - 1;
+                        continue candidates;
+                    }
+                    from[l] = found + 1;
+                }
+                matches.visit(slot, before);
+            }
+            return facets(matches);
+        }
+
+        /** The slots containing any word that starts with the prefix. */
+        private Postings union(String prefix, int maxPrefixWords) {
+            Collection<Postings> matching = terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+            if (matching.size() > maxPrefixWords) {
+                throw new IllegalArgumentException("'" + prefix + "*' matches too many words; use a longer prefix");
+            }
+            if (matching.size() == 1) {
+                return matching.iterator().next();
+            }
+            Postings union = new Postings();
+            union.slots = new int[matching.stream().mapToInt(list -> list.size).sum()];
+            for (Postings list : matching) {
+                System.arraycopy(list.slots, 0, union.slots, union.size, list.size);
+                union.size += list.size;
+            }
+            Arrays.sort(union.slots, 0, union.size);
+            int distinct = 0;
+            for (int i = 0; i < union.size; i++) {
+                if (distinct == 0 || union.slots[i] != union.slots[distinct - 1]) {
+                    union.slots[distinct++] = union.slots[i];
+                }
+            }
+            union.size = distinct;
+            return union;
+        }
+
+        private Hits facets(Matches matches) {
+            List<Integer> bySkill = new ArrayList<>();
+            for (int skill = 0; skill < skillNames.size(); skill++) {
+                if (matches.skillCounts[skill] > 0) {
+                    bySkill.add(skill);
+                }
+            }
+            bySkill.sort(Comparator.<Integer>comparingLong(skill -> -matches.skillCounts[skill])
+                    .thenComparing(skillNames::get));
+            Map<String, Long> skillFacet = new LinkedHashMap<>();
+            for (int skill : bySkill) {
+                skillFacet.put(skillNames.get(skill), matches.skillCounts[skill]);
+            }
+            Map<String, Long> difficultyFacet = new LinkedHashMap<>();
+            for (Difficulty difficulty : DIFFICULTIES) {
+                difficultyFacet.put(difficulty.name(), matches.difficultyCounts[difficulty.ordinal()]);
+            }
+
+            long[] page = matches.page.descending();
+            boolean more = page.length > matches.pageSize;
+            return new Hits(more ? Arrays.copyOf(page, matches.pageSize) : page, more, matches.total, skillFacet,
+                    difficultyFacet);
+        }
+    }
+
+    /**
+     * Applies the facet filters to candidate slots. Each facet is counted over
+     * the candidates passing every other filter, so its own selection does
+     * not hide the alternatives.
+     */
+    private static final class Matches {
+        final Segment segment;
+        final int pageSize;
+        final boolean[] skillFilter; // null: any skill
+        final int difficultyMask;
+        final int typeMask;
+        final long[] skillCounts;
+        final long[] difficultyCounts = new long[DIFFICULTIES.length];
+        final TopIds page;
+        long total;
+
+        Matches(Segment segment, QuestionSearchCriteria criteria, int pageSize) {
+            this.segment = segment;
+            this.pageSize = pageSize;
+            skillCounts = new long[segment.skillNames.size()];
+            page = new TopIds(pageSize + 1); // one extra to tell whether another page follows
+
+            if (criteria.getSkill() == null || criteria.getSkill().isEmpty()) {
+                skillFilter = null;
+            } else {
+                skillFilter = new boolean[segment.skillNames.size()];
+                for (String skill : criteria.getSkill()) {
+                    Integer id = segment.skillIds.get(skill.trim());
+                    if (id != null) {
+                        skillFilter[id] = true;
+                    }
+                }
+            }
+            difficultyMask = mask(criteria.getDifficulty());
+            typeMask = mask(criteria.getType());
+        }
+
+        private static int mask(List<? extends Enum<?>> values) {
+            if (values == null || values.isEmpty()) {
+                return -1;
+            }
+            int mask = 0;
+            for (Enum<?> value : values) {
+                mask |= 1 << value.ordinal();
+            }
+            return mask;
+        }
+
+        void visit(int slot, long before) {
+            if (!segment.live[slot] || (typeMask & 1 << segment.types[slot]) == 0) {
+                return;
+            }
+            int skill = segment.skills[slot];
+            boolean skillMatches = skillFilter == null || skillFilter[skill];
+            boolean difficultyMatches = (difficultyMask & 1 << segment.difficulties[slot]) != 0;
+            if (difficultyMatches) {
+                skillCounts[skill]++;
+            }
+            if (skillMatches) {
+                difficultyCounts[segment.difficulties[slot]]++;
+            }
+            if (skillMatches && difficultyMatches) {
+                total++;
+                if (segment.ids[slot] < before) {
+                    page.offer(segment.ids[slot]);
+                }
+            }
+        }
+    }
+
+    /** The largest ids offered, kept in a bounded min-heap. */
+    private static final class TopIds {
+        private final long[] heap;
+        private int size;
+
+        TopIds(int capacity) {
+            heap = new long[capacity];
+        }
+
+        void offer(long id) {
+            if (size < heap.length) {
+                heap[size] = id;
+                for (int i = size++; i > 0 && heap[(i - 1) / 2] > heap[i]; i = (i - 1) / 2) {
+                    swap(i, (i - 1) / 2);
+                }
+            } else if (id > heap[0]) {
+                heap[0] = id;
+                for (int i = 0;;) {
+                    int smallest = i;
+                    for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                        if (heap[child] < heap[smallest]) {
+                            smallest = child;
+                        }
+                    }
+                    if (smallest == i) {
+                        break;
+                    }
+                    swap(i, smallest);
+                    i = smallest;
+                }
+            }
+        }
+
+        long[] descending() {
+            long[] sorted = Arrays.copyOf(heap, size);
+            Arrays.sort(sorted);
+            for (int i = 0, j = sorted.length - 1; i < j; i++, j--) {
+                long id = sorted[i];
+                sorted[i] = sorted[j];
+                sorted[j] = id;
+            }
+            return sorted;
+        }
+
+        private void swap(int a, int b) {
+            long id = heap[a];
+            heap[a] = heap[b];
+            heap[b] = id;
+        }
+    }
+}
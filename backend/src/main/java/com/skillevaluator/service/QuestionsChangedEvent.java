@@ -0,0 +1,22 @@
+package com.skillevaluator.service;
+
+import com.skillevaluator.model.Question;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published when questions are saved or deleted, so every in-memory view of
+ * the bank ({@link ReloadableQuestionIndex}) can follow. Publish it inside
+ * the writing transaction; the views apply it once that commits.
+ */
+public record QuestionsChangedEvent(List<Question> saved, List<Long> deletedIds) {
+
+    public static QuestionsChangedEvent saved(Collection<Question> questions) {
+        return new QuestionsChangedEvent(List.copyOf(questions), List.of());
+    }
+
+    public static QuestionsChangedEvent deleted(Collection<Long> ids) {
+        return new QuestionsChangedEvent(List.of(), List.copyOf(ids));
+    }
+}
@@ -0,0 +1,130 @@
+package com.skillevaluator.service;
+
+import com.skillevaluator.model.Question;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * An in-memory view of the question bank, of type {@code S}, that is loaded
+ * from the database once the application is ready and reloaded by
+ * {@link #rebuild()}. In between, it is kept current by
+ * {@link QuestionsChangedEvent}s, applied once the writing transaction
+ * commits.
+ *
+ * Readers keep using the current state while a rebuild loads. Writes made
+ * meanwhile are applied to both, and replayed onto the fresh state before it
+ * replaces the current one. Subclasses schedule their own periodic rebuild,
+ * which picks up writes made through other instances.
+ */
+abstract class ReloadableQuestionIndex<S> {
+
+    private static final Logger log = LoggerFactory.getLogger(ReloadableQuestionIndex.class);
+
+    private final String name;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private S current;
+    // Writes made while a rebuild is loading, replayed onto it before it replaces the current state
+    private List<Consumer<S>> pendingWrites;
+    private volatile boolean ready;
+
+    ReloadableQuestionIndex(String name, S empty) {
+        this.name = name;
+        this.current = empty;
+    }
+
+    /** Loads a fresh state from the database, without holding the lock. */
+    protected abstract S load();
+
+    /** Called with each state that replaced the current one, and how long it took to load. */
+    protected abstract void loaded(S fresh, long millis);
+
+    /** Indexes the questions, replacing what was indexed for them before. */
+    public abstract void put(Collection<Question> questions);
+
+    public abstract void remove(Collection<Long> ids);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+    }
+
+    /** Reloads from the table; on failure the current state is kept. */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        withWriteLock(() -> pendingWrites = new ArrayList<>());
+        try {
+            S fresh = load();
+            withWriteLock(() -> {
+                pendingWrites.forEach(write -> write.accept(fresh));
+                current = fresh;
+                ready = true;
+            });
+            loaded(fresh, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("{} reload failed; keeping the previous state", name, e);
+        } finally {
+            withWriteLock(() -> pendingWrites = null);
+        }
+    }
+
+    // Without a transaction (a plain repository call) the change applies right away
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onQuestionsChanged(QuestionsChangedEvent event) {
+        if (!event.saved().isEmpty()) {
+            put(event.saved());
+        }
+        if (!event.deletedIds().isEmpty()) {
+            remove(event.deletedIds());
+        }
+    }
+
+    /** Applies the change to the current state, and to the one a running rebuild is loading. */
+    protected final void write(Consumer<S> change) {
+        withWriteLock(() -> {
+            change.accept(current);
+            if (pendingWrites != null) {
+                pendingWrites.add(change);
+            }
+        });
+    }
+
+    /** Runs the query against the current state under the read lock. */
+    protected final <T> T read(Function<S, T> query) {
+        lock.readLock().lock();
+        try {
+            return query.apply(current);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @throws IllegalStateException until the first load has completed
+     */
+    protected final void checkReady() {
+        if (!ready) {
+            throw new IllegalStateException(name + " is still loading");
+        }
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.skillevaluator.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a test's results as CSV or NDJSON straight from a forward-only JDBC
+ * cursor, one row at a time, so memory use does not depend on the number of
+ * sessions. Per-skill scores from {@code skillBreakdown} are flattened into
+ * one column per skill scored in any of the test's sessions, taken from
+ * {@code session_skill_scores} so skills since removed from the test keep
+ * their column.
+ */
+@Service
+public class ResultExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        public final String contentType;
+        public final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+    }
+
+    private static final String EXPORT_SQL = "SELECT s.id, u.id AS candidate_id, u.username, u.email, s.status, "
+            + "s.started_at, s.submitted_at, s.score, s.total_points, s.skill_breakdown "
+            + "FROM test_sessions s JOIN users u ON u.id = s.candidate_id WHERE s.test_id = ? ORDER BY s.id";
+
+    private static final String SKILLS_SQL = "SELECT DISTINCT skill FROM session_skill_scores WHERE test_id = ? ORDER BY skill";
+
+    private static final TypeReference<Map<String, Integer>> SKILL_SCORES = new TypeReference<>() {
+    };
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${export.fetch-size:1000}")
+    private int fetchSize;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        // A dedicated template so the fetch size only applies to exports
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void export(long testId, Format format, boolean gzip, OutputStream out) throws IOException {
+        String[] skills = jdbcTemplate.queryForList(SKILLS_SQL, String.class, testId).toArray(String[]::new);
+        OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer, skills) : new NdjsonRowWriter(writer);
+        rowWriter.header();
+        try {
+            // PostgreSQL only streams with a cursor inside a transaction; otherwise it buffers the whole result
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(EXPORT_SQL, rs -> {
+                try {
+                    rowWriter.row(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, testId));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        if (gzip) {
+            ((GZIPOutputStream) target).finish();
+        }
+    }
+
+    private interface RowWriter {
+        void header() throws IOException;
+
+        void row(ResultSet rs) throws SQLException, IOException;
+    }
+
+    private Map<String, Integer> skillScores(String json) {
+        if (json == null || json.isBlank()) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(json, SKILL_SCORES);
+        } catch (IOException e) {
+            return Map.of();
+        }
+    }
+
+    private final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final String[] skills;
+
+        CsvRowWriter(Writer writer, String[] skills) {
+            this.writer = writer;
+            this.skills = skills;
+        }
+
+        @Override
+        public void header() throws IOException {
+            writer.write("sessionId,candidateId,username,email,status,startedAt,submittedAt,score,totalPoints,percentage");
+            for (String skill : skills) {
+                writer.write(',');
+                writeField("skill_" + skill);
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            Integer score = (Integer) rs.getObject("score");
+            Integer totalPoints = (Integer) rs.getObject("total_points");
+
+            writer.write(Long.toString(rs.getLong("id")));
+            writer.write(',');
+            writer.write(Long.toString(rs.getLong("candidate_id")));
+            writer.write(',');
+            writeField(rs.getString("username"));
+            writer.write(',');
+            writeField(rs.getString("email"));
+            writer.write(',');
+            writeField(rs.getString("status"));
+            writer.write(',');
+            writeField(timestamp(rs.getTimestamp("started_at")));
+            writer.write(',');
+            writeField(timestamp(rs.getTimestamp("submitted_at")));
+            writer.write(',');
+            writeField(score == null ? null : score.toString());
+            writer.write(',');
+            writeField(totalPoints == null ? null : totalPoints.toString());
+            writer.write(',');
+            writeField(percentage(score, totalPoints));
+
+            Map<String, Integer> skillScores = skillScores(rs.getString("skill_breakdown"));
+            for (String skill : skills) {
+                Integer skillScore = skillScores.get(skill);
+                writer.write(',');
+                writeField(skillScore == null ? null : skillScore.toString());
+            }
+            writer.write('\n');
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            // The generator writes into the shared buffered writer; flushing and closing stay with the export
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            // Rows are separated by the newline written after each one, not Jackson's default space
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void header() {
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            Integer score = (Integer) rs.getObject("score");
+            Integer totalPoints = (Integer) rs.getObject("total_points");
+
+            generator.writeStartObject();
+            generator.writeNumberField("sessionId", rs.getLong("id"));
+            generator.writeNumberField("candidateId", rs.getLong("candidate_id"));
+            generator.writeStringField("username", rs.getString("username"));
+            generator.writeStringField("email", rs.getString("email"));
+            generator.writeStringField("status", rs.getString("status"));
+            generator.writeStringField("startedAt", timestamp(rs.getTimestamp("started_at")));
+            generator.writeStringField("submittedAt", timestamp(rs.getTimestamp("submitted_at")));
+            writeNullableNumber("score", score);
+            writeNullableNumber("totalPoints", totalPoints);
+            String percentage = percentage(score, totalPoints);
+            if (percentage == null) {
+                generator.writeNullField("percentage");
+            } else {
+                generator.writeFieldName("percentage");
+                generator.writeNumber(percentage);
+            }
+            generator.writeObjectFieldStart("skills");
+            for (Map.Entry<String, Integer> skill : skillScores(rs.getString("skill_breakdown")).entrySet()) {
+                writeNullableNumber(skill.getKey(), skill.getValue());
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+            generator.flush();
+            writer.write('\n');
+        }
+
+        private void writeNullableNumber(String field, Integer value) throws IOException {
+            if (value == null) {
+                generator.writeNullField(field);
+            } else {
+                generator.writeNumberField(field, value);
+            }
+        }
+    }
+
+    private static String timestamp(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime().toString();
+    }
+
+    private static String percentage(Integer score, Integer totalPoints) {
+        if (score == null || totalPoints == null || totalPoints == 0) {
+            return null;
+        }
+        return String.format(java.util.Locale.ROOT, "%.2f", score * 100.0 / totalPoints);
+    }
+}
@@ -0,0 +1,153 @@
+package com.skillevaluator.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closes sessions when their time is up instead of waiting for the candidate
+ * to come back. Every open session sits in a {@link DelayQueue} keyed by its
+ * deadline (expiry plus a grace period for the client's own auto-submit); a
+ * single thread sleeps until the earliest one is due and closes everything
+ * due by then as one batch. The queue is rebuilt from the open sessions at
+ * startup and fed by {@link TestService#startTestSession} afterwards.
+ *
+ * A batch that fails is retried one session per transaction, so one session
+ * that cannot be closed does not hold up the rest. Sessions that still fail
+ * are retried with exponential backoff.
+ */
+@Component
+public class SessionExpiryScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionExpiryScheduler.class);
+
+    private static final String OPEN_SESSIONS_SQL = "SELECT id, expires_at FROM test_sessions WHERE is_completed = false";
+
+    // TestService tracks new sessions here, so it is resolved lazily to break the cycle
+    @Lazy
+    @Autowired
+    private TestService testService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${exam.expiry.grace-seconds:30}")
+    private long graceSeconds;
+
+    @Value("${exam.expiry.batch-size:200}")
+    private int batchSize;
+
+    @Value("${exam.expiry.retry-seconds:30}")
+    private long retrySeconds;
+
+    @Value("${exam.expiry.max-retry-seconds:3600}")
+    private long maxRetrySeconds;
+
+    private final DelayQueue<Deadline> deadlines = new DelayQueue<>();
+    private Thread worker;
+
+    // failures counts the attempts to close the session that failed so far
+    private record Deadline(long sessionId, long dueAtMillis, int failures) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtMillis, ((Deadline) other).dueAtMillis);
+        }
+    }
+
+    public void track(long sessionId, LocalDateTime expiresAt) {
+        long expiresAtMillis = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        deadlines.add(new Deadline(sessionId, expiresAtMillis + TimeUnit.SECONDS.toMillis(graceSeconds), 0));
+    }
+
+    public int pending() {
+        return deadlines.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // The only scan of open sessions; sessions started since are already tracked, and repeats are harmless
+        jdbcTemplate.query(OPEN_SESSIONS_SQL, rs -> {
+            track(rs.getLong("id"), rs.getTimestamp("expires_at").toLocalDateTime());
+        });
+        log.info("Tracking {} open sessions for expiry", deadlines.size());
+
+        worker = new Thread(this::run, "session-expiry");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Deadline> due = new ArrayList<>(batchSize);
+            try {
+                due.add(deadlines.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            deadlines.drainTo(due, batchSize - 1);
+
+            try {
+                close(due.stream().map(Deadline::sessionId).toList());
+            } catch (RuntimeException batchFailure) {
+                if (due.size() > 1) {
+                    log.warn("Closing {} expired sessions failed; retrying them one by one", due.size(), batchFailure);
+                }
+                for (Deadline deadline : due) {
+                    try {
+                        close(List.of(deadline.sessionId()));
+                    } catch (RuntimeException e) {
+                        long delay = retryDelaySeconds(deadline.failures() + 1);
+                        log.warn("Closing expired session {} failed; retrying in {}s", deadline.sessionId(), delay, e);
+                        retryLater(deadline.sessionId(), delay, deadline.failures() + 1);
+                    }
+                }
+            }
+        }
+    }
+
+    private void close(List<Long> sessionIds) {
+        // Sessions with a queued submission are left to the queue and checked again later
+        for (Long deferred : testService.closeExpiredSessions(sessionIds)) {
+            retryLater(deferred, retrySeconds, 0);
+        }
+    }
+
+    // retrySeconds after the first failure, doubling up to maxRetrySeconds
+    private long retryDelaySeconds(int failures) {
+        long delay = retrySeconds << Math.min(failures - 1, 20);
+        return Math.min(delay, Math.max(retrySeconds, maxRetrySeconds));
+    }
+
+    private void retryLater(long sessionId, long delaySeconds, int failures) {
+        deadlines.add(new Deadline(sessionId, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(delaySeconds),
+                failures));
+    }
+}
@@ -0,0 +1,148 @@
+package com.skillevaluator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillevaluator.model.SkillScore;
+import com.skillevaluator.model.TestSession;
+import com.skillevaluator.repository.SkillScoreRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps {@code session_skill_scores} in step with completed sessions: rows
+ * are written when a session is scored, and sessions completed before the
+ * table existed are filled in from their {@code skillBreakdown} by
+ * {@link #backfill()}.
+ */
+@Service
+public class SkillScoreService {
+
+    private static final int BACKFILL_CHUNK = 1000;
+
+    private static final String BACKFILL_SQL = "SELECT s.id, s.test_id, s.skill_breakdown, s.submitted_at "
+            + "FROM test_sessions s WHERE s.is_completed = true AND s.skill_breakdown IS NOT NULL AND s.id > ? "
+            + "AND NOT EXISTS (SELECT 1 FROM session_skill_scores k WHERE k.session_id = s.id) ORDER BY s.id LIMIT ?";
+
+    private static final String INSERT_SQL = "INSERT INTO session_skill_scores "
+            + "(id, session_id, test_id, skill, points, max_points, submitted_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // Matches the entity's pooled sequence: each value fetched covers the block of ids ending at it
+    private static final String NEXT_ID_BLOCK_SQL = "SELECT nextval('session_skill_scores_seq')";
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final TypeReference<Map<String, Integer>> SKILL_SCORES = new TypeReference<>() {
+    };
+
+    public record BackfillResult(long sessions, long rows) {
+    }
+
+    @Autowired
+    private SkillScoreRepository skillScoreRepository;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /** Writes the session's skill rows in the caller's transaction. */
+    public void record(TestSession session, AnswerKey key, AnswerKey.Score score) {
+        int[] maxPoints = key.skillMaxPoints();
+        List<SkillScore> rows = new ArrayList<>(score.skills().length);
+        for (int i = 0; i < score.skills().length; i++) {
+            rows.add(new SkillScore(null, session.getId(), key.getTestId(), score.skills()[i],
+                    score.skillPoints()[i], maxPoints[i], session.getSubmittedAt()));
+        }
+        skillScoreRepository.saveAll(rows);
+    }
+
+    /**
+     * Fills in rows for completed sessions that have none, a chunk per
+     * transaction so it can be rerun safely after an interruption. Available
+     * points come from the test's current questions.
+     */
+    public BackfillResult backfill() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Map<Long, Map<String, Integer>> maxPointsByTest = new HashMap<>();
+        long sessions = 0;
+        long rows = 0;
+        long lastId = 0;
+
+        while (true) {
+            List<Object[]> chunk = jdbcTemplate.query(BACKFILL_SQL, (rs, row) -> new Object[] {
+                    rs.getLong("id"), rs.getLong("test_id"), rs.getString("skill_breakdown"),
+                    rs.getTimestamp("submitted_at") }, lastId, BACKFILL_CHUNK);
+            if (chunk.isEmpty()) {
+                return new BackfillResult(sessions, rows);
+            }
+
+            List<Object[]> inserts = new ArrayList<>();
+            for (Object[] session : chunk) {
+                Long testId = (Long) session[1];
+                Map<String, Integer> maxPoints = maxPointsByTest.computeIfAbsent(testId, this::maxPointsBySkill);
+                for (Map.Entry<String, Integer> skill : parse((String) session[2]).entrySet()) {
+                    if (skill.getValue() != null) {
+                        inserts.add(new Object[] { null, session[0], testId, skill.getKey(), skill.getValue(),
+                                maxPoints.get(skill.getKey()), (Timestamp) session[3] });
+                    }
+                }
+            }
+            transaction.executeWithoutResult(status -> {
+                assignIds(inserts);
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+            });
+
+            sessions += chunk.size();
+            rows += inserts.size();
+            lastId = (Long) chunk.get(chunk.size() - 1)[0];
+        }
+    }
+
+    // Fills in the id column of each insert, one sequence fetch per block of ids
+    private void assignIds(List<Object[]> inserts) {
+        long next = 0;
+        long last = -1;
+        for (Object[] insert : inserts) {
+            if (next > last) {
+                last = jdbcTemplate.queryForObject(NEXT_ID_BLOCK_SQL, Long.class);
+                next = Math.max(1, last - ID_BLOCK_SIZE + 1);
+            }
+            insert[0] = next++;
+        }
+    }
+
+    private Map<String, Integer> maxPointsBySkill(long testId) {
+        AnswerKey key = answerKeyCache.get(testId);
+        String[] skills = key.skills();
+        int[] maxPoints = key.skillMaxPoints();
+        Map<String, Integer> bySkill = new HashMap<>();
+        for (int i = 0; i < skills.length; i++) {
+            bySkill.put(skills[i], maxPoints[i]);
+        }
+        return bySkill;
+    }
+
+    private Map<String, Integer> parse(String json) {
+        try {
+            return objectMapper.readValue(json, SKILL_SCORES);
+        } catch (JsonProcessingException e) {
+            return Map.of();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.skillevaluator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillevaluator.model.Submission;
+import com.skillevaluator.model.TestSession;
+import com.skillevaluator.model.User;
+import com.skillevaluator.repository.SubmissionRepository;
+import com.skillevaluator.repository.TestSessionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Async submission mode. A submit only validates the open session and
+ * inserts the answers into {@code submission_queue}; the row id is the
+ * candidate's ticket. A scheduled dispatcher claims queued rows in batches
+ * and hands them to a fixed-size worker pool, which scores a whole batch in
+ * one transaction and falls back to one transaction per submission if the
+ * batch fails. Each submission is marked done in the same transaction that
+ * completes its session, so rows still claimed after a crash can simply be
+ * requeued on startup.
+ */
+@Service
+public class SubmissionQueueService {
+
+    private static final Logger log = LoggerFactory.getLogger(SubmissionQueueService.class);
+
+    private static final String OPEN_SESSION_SQL = "SELECT s.id, s.expires_at, t.adaptive FROM test_sessions s "
+            + "JOIN tests t ON t.id = s.test_id WHERE s.test_id = ? AND s.candidate_id = ? AND s.is_completed = false";
+
+    private static final String QUEUED_SQL = "SELECT id FROM submission_queue WHERE status = 'QUEUED' ORDER BY id LIMIT ?";
+
+    private static final String CLAIM_SQL = "UPDATE submission_queue SET status = 'PROCESSING' WHERE id = ? AND status = 'QUEUED'";
+
+    private static final String RELEASE_SQL = "UPDATE submission_queue SET status = 'QUEUED' WHERE id = ? AND status = 'PROCESSING'";
+
+    private static final TypeReference<Map<Long, String>> ANSWERS = new TypeReference<>() {
+    };
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private TestSessionRepository testSessionRepository;
+
+    @Autowired
+    private TestService testService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${exam.submission.workers:2}")
+    private int workers;
+
+    @Value("${exam.submission.batch-size:50}")
+    private int batchSize;
+
+    private TransactionTemplate transaction;
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+
+        // Runs before the scheduler starts dispatching, so nothing is claimed yet on this node
+        Integer requeued = transaction.execute(status -> submissionRepository.requeueProcessing());
+        if (requeued != null && requeued > 0) {
+            log.info("Requeued {} submissions left in progress by the previous run", requeued);
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "submission-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // Unfinished batches roll back and stay claimed; the next startup requeues them
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Durably queues the submission for the candidate's open session of the
+     * test. Submitting again for the same session returns the existing ticket.
+     *
+     * @throws IllegalStateException for an expired or adaptive session
+     */
+    public Submission enqueue(long testId, User candidate, Map<Long, String> answers, boolean autoSubmit) {
+        List<Object[]> open = jdbcTemplate.query(OPEN_SESSION_SQL,
+                (rs, row) -> new Object[] { rs.getLong("id"), rs.getTimestamp("expires_at"), rs.getBoolean("adaptive") },
+                testId, candidate.getId());
+        if (open.isEmpty()) {
+            throw new NoSuchElementException("Active test session not found");
+        }
+        long sessionId = (Long) open.get(0)[0];
+        Timestamp expiresAt = (Timestamp) open.get(0)[1];
+        if ((Boolean) open.get(0)[2]) {
+            // Completed by the engine after the last answer, or by the expiry sweep
+            throw new IllegalStateException("Answer adaptive sessions one question at a time");
+        }
+        if (expiresAt.toLocalDateTime().isBefore(LocalDateTime.now()) && !autoSubmit) {
+            throw new IllegalStateException("Test session has expired");
+        }
+
+        Submission submission = new Submission();
+        submission.setSessionId(sessionId);
+        submission.setTestId(testId);
+        submission.setCandidateId(candidate.getId());
+        submission.setAnswers(toJson(answers));
+        submission.setAutoSubmit(autoSubmit);
+        submission.setStatus("QUEUED");
+        submission.setCreatedAt(LocalDateTime.now());
+        try {
+            return submissionRepository.save(submission);
+        } catch (DataIntegrityViolationException e) {
+            // A retried request; the first submission stands
+            return submissionRepository.findBySessionId(sessionId).orElseThrow(() -> e);
+        }
+    }
+
+    public Optional<Submission> findTicket(long ticket) {
+        return submissionRepository.findById(ticket);
+    }
+
+    @Scheduled(fixedDelayString = "${exam.submission.poll-interval-ms:200}")
+    public void dispatch() {
+        while (executor.getQueue().remainingCapacity() > 0) {
+            List<Long> claimed = claim();
+            if (claimed.isEmpty()) {
+                return;
+            }
+            try {
+                executor.execute(() -> process(claimed));
+            } catch (RejectedExecutionException e) {
+                release(claimed);
+                return;
+            }
+        }
+    }
+
+    private List<Long> claim() {
+        List<Long> queued = jdbcTemplate.queryForList(QUEUED_SQL, Long.class, batchSize);
+        if (queued.isEmpty()) {
+            return queued;
+        }
+        int[] updated = jdbcTemplate.batchUpdate(CLAIM_SQL, queued.stream().map(id -> new Object[] { id }).toList());
+        List<Long> claimed = new ArrayList<>(queued.size());
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] > 0) {
+                claimed.add(queued.get(i));
+            }
+        }
+        return claimed;
+    }
+
+    private void release(List<Long> ids) {
+        jdbcTemplate.batchUpdate(RELEASE_SQL, ids.stream().map(id -> new Object[] { id }).toList());
+    }
+
+    private void process(List<Long> ids) {
+        try {
+            transaction.executeWithoutResult(status -> finalizeAll(ids));
+        } catch (RuntimeException batchFailure) {
+            // Retry one by one so a single bad submission does not hold back the rest of the batch
+            for (Long id : ids) {
+                try {
+                    transaction.executeWithoutResult(status -> finalizeAll(List.of(id)));
+                } catch (RuntimeException e) {
+                    fail(id, e);
+                }
+            }
+        }
+    }
+
+    private void finalizeAll(List<Long> ids) {
+        List<Submission> submissions = submissionRepository.findAllById(ids);
+        Map<Long, TestSession> sessions = new HashMap<>();
+        for (TestSession session : testSessionRepository.findAllWithTestByIdIn(
+                submissions.stream().map(Submission::getSessionId).toList())) {
+            sessions.put(session.getId(), session);
+        }
+
+        for (Submission submission : submissions) {
+            if (!"PROCESSING".equals(submission.getStatus())) {
+                continue;
+            }
+            TestSession session = sessions.get(submission.getSessionId());
+            if (session == null) {
+                throw new RuntimeException("Test session not found");
+            }
+            TestSession completed = testService.finalizeSession(session, parse(submission.getAnswers()),
+                    submission.getAutoSubmit());
+            submission.setStatus("DONE");
+            submission.setScore(completed.getScore());
+            submission.setTotalPoints(completed.getTotalPoints());
+            submission.setCompletedAt(LocalDateTime.now());
+        }
+    }
+
+    private void fail(Long id, RuntimeException cause) {
+        log.warn("Submission {} failed", id, cause);
+        try {
+            transaction.executeWithoutResult(status -> submissionRepository.findById(id).ifPresent(submission -> {
+                String message = cause.getMessage() == null ? cause.getClass().getSimpleName() : cause.getMessage();
+                submission.setStatus("FAILED");
+                submission.setError(message.length() > 1000 ? message.substring(0, 1000) : message);
+                submission.setCompletedAt(LocalDateTime.now());
+            }));
+        } catch (RuntimeException e) {
+            // Stays claimed and is requeued on the next startup
+            log.warn("Could not record failure of submission {}", id, e);
+        }
+    }
+
+    private String toJson(Map<Long, String> answers) {
+        try {
+            return objectMapper.writeValueAsString(answers == null ? Map.of() : answers);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Answers could not be serialized", e);
+        }
+    }
+
+    private Map<Long, String> parse(String json) {
+        try {
+            return json == null ? Map.of() : objectMapper.readValue(json, ANSWERS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored answers are not valid JSON", e);
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.skillevaluator.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.skillevaluator.model.*;
 import com.skillevaluator.repository.*;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -18,9 +23,45 @@ public class TestService {
     @Autowired
     private TestSessionRepository testSessionRepository;
 
+    @Autowired
+    private QuestionRepository questionRepository;
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private AnswerAutosaveService answerAutosaveService;
+
+    @Autowired
+    private SessionExpiryScheduler sessionExpiryScheduler;
+
+    @Autowired
+    private SkillScoreService skillScoreService;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private SkillScoreRepository skillScoreRepository;
+
+    @Autowired
+    private TextAnswerRepository textAnswerRepository;
+
+    @Autowired
+    private AdaptiveTestEngine adaptiveTestEngine;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<Test> getAvailableTests() {
         return testRepository.findByIsActiveTrue();
     }
@@ -30,29 +71,58 @@ public class TestService {
                 .orElseThrow(() -> new RuntimeException("Test not found"));
     }
 
+    /**
+     * Saves new questions and the test linking them in one transaction, so the
+     * question, test and join-table inserts go out as JDBC batches at commit.
+     */
     @Transactional
-    public TestSession startTestSession(@org.springframework.lang.NonNull Long testId, String username) {
-        Test test = testRepository.findById(testId)
-                .orElseThrow(() -> new RuntimeException("Test not found"));
+    public Test createTestWithQuestions(Test test, List<Question> questions) {
+        questionRepository.saveAll(questions);
+        test.getQuestions().addAll(questions);
+        eventPublisher.publishEvent(QuestionsChangedEvent.saved(questions));
+        return testRepository.save(test);
+    }
 
-        if (!test.getIsActive()) {
+    /**
+     * Deletes a test with its sessions and everything keyed by them: free-text
+     * answers, queued submissions and skill score rows. All or nothing, so a
+     * failure cannot leave rows pointing at a deleted test.
+     */
+    @Transactional
+    public void deleteTest(@org.springframework.lang.NonNull Long testId) {
+        // Goes first: the sessions it is keyed by are removed with the test
+        textAnswerRepository.deleteByTestId(testId);
+        submissionRepository.deleteByTestId(testId);
+        skillScoreRepository.deleteByTestId(testId);
+        testRepository.deleteById(testId);
+    }
+
+    /**
+     * Starts (or resumes) a session from a cached exam snapshot. With the
+     * snapshot warm this costs the open-session lookup plus the insert; the
+     * test and candidate are only referenced by id.
+     */
+    @Transactional
+    @Timed(value = "exam.start", histogram = true)
+    public TestSession startTestSession(ExamSnapshot snapshot, User principal) {
+        if (!snapshot.isActive()) {
             throw new RuntimeException("Test is not active");
         }
 
-        User candidate = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
         // Check if there's an existing incomplete session
         Optional<TestSession> existingSession = testSessionRepository
-                .findByTestAndCandidateAndIsCompletedFalse(test, candidate);
+                .findOpenSession(snapshot.getTestId(), principal.getId());
 
         if (existingSession.isPresent()) {
             TestSession session = existingSession.get();
             // Check if session has expired
             if (session.getExpiresAt().isBefore(LocalDateTime.now())) {
-                session.setIsCompleted(true);
-                session.setStatus("EXPIRED");
-                testSessionRepository.save(session);
+                if (!autoSubmitIfAnswered(session)) {
+                    session.setIsCompleted(true);
+                    session.setStatus("EXPIRED");
+                    testSessionRepository.save(session);
+                    leaderboardService.recordCompleted(snapshot.getTestId(), session.getId(), session.getScore());
+                }
             } else {
                 return session; // Return existing session
             }
@@ -60,39 +130,63 @@ public class TestService {
 
         // Create new test session
         TestSession session = new TestSession();
-        session.setTest(test);
-        session.setCandidate(candidate);
+        session.setTest(testRepository.getReferenceById(snapshot.getTestId()));
+        session.setCandidate(userRepository.getReferenceById(principal.getId()));
         session.setStartedAt(LocalDateTime.now());
-        session.setExpiresAt(LocalDateTime.now().plusMinutes(test.getDurationMinutes()));
+        session.setExpiresAt(LocalDateTime.now().plusMinutes(snapshot.getDurationMinutes()));
         session.setIsCompleted(false);
         session.setStatus("IN_PROGRESS");
-        session.setTotalPoints(test.getTotalPoints());
+        session.setTotalPoints(snapshot.isAdaptive() ? AdaptiveTestEngine.MAX_SCORE : snapshot.getTotalPoints());
+        if (!snapshot.isAdaptive()) {
+            session.setQuestionIds(snapshot.encodedQuestionIds());
+        }
 
-        return testSessionRepository.save(session);
+        TestSession saved = testSessionRepository.save(session);
+        sessionExpiryScheduler.track(saved.getId(), saved.getExpiresAt());
+        return saved;
     }
 
-    public List<Question> getRandomizedQuestions(@org.springframework.lang.NonNull Long testId) {
-        Test test = testRepository.findById(testId)
-                .orElseThrow(() -> new RuntimeException("Test not found"));
-
-        List<Question> allQuestions = test.getQuestions();
-
-        // Randomize questions
-        List<Question> randomizedQuestions = new ArrayList<>(allQuestions);
-        Collections.shuffle(randomizedQuestions);
+    /**
+     * Closes sessions whose deadline has passed: those with autosaved answers
+     * are auto-submitted, the rest are expired with one bulk update. Returns
+     * the sessions left open because a queued submission will complete them.
+     */
+    @Transactional
+    public List<Long> closeExpiredSessions(Collection<Long> sessionIds) {
+        Set<Long> pending = new HashSet<>(submissionRepository.findPendingSessionIds(sessionIds));
+        List<Long> expired = new ArrayList<>();
+        List<TestSession> expiredSessions = new ArrayList<>();
+
+        for (TestSession session : testSessionRepository.findAllWithTestByIdIn(sessionIds)) {
+            if (session.getIsCompleted() || pending.contains(session.getId())) {
+                continue;
+            }
+            if (!autoSubmitIfAnswered(session)) {
+                expired.add(session.getId());
+                expiredSessions.add(session);
+            }
+        }
 
-        // For MCQ questions, also randomize options if needed
-        randomizedQuestions.forEach(question -> {
-            if (question.getType() == QuestionType.MCQ && question.getOptions() != null) {
-                // Options are stored as comma-separated, we'll randomize them in the response
-                // For now, we keep them as is - randomization can be done in DTO layer
+        if (!expired.isEmpty()) {
+            testSessionRepository.expireOpenSessions(expired);
+            for (TestSession session : expiredSessions) {
+                leaderboardService.recordCompleted(session.getTest().getId(), session.getId(), null);
             }
-        });
+        }
+        return new ArrayList<>(pending);
+    }
 
-        return randomizedQuestions;
+    // Time is up: whatever the candidate autosaved is submitted for them
+    private boolean autoSubmitIfAnswered(TestSession session) {
+        if (answerAutosaveService.savedAnswers(session.getId(), session.getAnswers()).isEmpty()) {
+            return false;
+        }
+        finalizeSession(session, Map.of(), true);
+        return true;
     }
 
     @Transactional
+    @Timed(value = "exam.submit", histogram = true)
     public TestSession submitTest(@org.springframework.lang.NonNull Long testId,
             @org.springframework.lang.NonNull Long sessionId, Map<Long, String> answers, String username,
             boolean autoSubmit) {
@@ -107,45 +201,111 @@ public class TestService {
             throw new RuntimeException("Test session already completed");
         }
 
+        // Completed by the engine after the last answer, or by the expiry sweep
+        if (Boolean.TRUE.equals(session.getTest().getAdaptive())) {
+            throw new IllegalStateException("Answer adaptive sessions one question at a time");
+        }
+
         // Check if expired
         if (session.getExpiresAt().isBefore(LocalDateTime.now()) && !autoSubmit) {
             throw new RuntimeException("Test session has expired");
         }
 
-        // Calculate score and skill breakdown
-        Map<String, Map<String, Integer>> results = calculateScoreAndBreakdown(session.getTest(), answers);
-        Map<String, Integer> skillScores = results.get("skillScores");
-        int totalScore = skillScores.values().stream().mapToInt(Integer::intValue).sum();
+        return finalizeSession(session, answers, autoSubmit);
+    }
+
+    /**
+     * Scores and completes a session that the caller has already validated,
+     * in the caller's transaction. Shared by synchronous submits and the
+     * submission queue workers.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public TestSession finalizeSession(TestSession session, Map<Long, String> answers, boolean autoSubmit) {
+        if (session.getIsCompleted()) {
+            throw new RuntimeException("Test session already completed");
+        }
 
-        session.setAnswers(convertAnswersToJson(answers));
-        session.setScore(totalScore);
-        session.setSkillBreakdown(convertMapToJson(skillScores));
+        boolean adaptive = Boolean.TRUE.equals(session.getTest().getAdaptive());
+        // Anything autosaved but not resubmitted still counts. Adaptive sessions count only what the engine
+        // recorded: each question it administered, autosaved when shown and again when answered.
+        answers = answerAutosaveService.mergeForSubmit(session.getId(), session.getAnswers(), adaptive ? null : answers);
+
+        AnswerKey key;
+        AnswerKey.Score score;
+        Map<Long, String> freeText = Map.of();
+        if (adaptive) {
+            // Scored on ability rather than points; the key covers just the questions this session was asked
+            List<Question> asked = questionRepository.findAllById(answers.keySet());
+            key = AnswerKey.of(session.getTest().getId(), asked);
+            score = key.score(answers);
+            session.setAnswers(writeAnswers(answers));
+            session.setScore(adaptiveTestEngine.estimate(asked, answers).score());
+            session.setTotalPoints(AdaptiveTestEngine.MAX_SCORE);
+        } else {
+            // Score against the compiled answer key; the question entities are not loaded
+            key = answerKeyCache.get(session.getTest().getId());
+            score = key.score(answers);
+
+            // Stored as choice indexes against the key; only free-text answers stay strings
+            AnswerKey.Encoded encoded = key.encode(answers);
+            freeText = encoded.freeText();
+            session.setAnswersBlob(encoded.blob());
+            session.setAnswers(null);
+            session.setScore(score.total());
+        }
+        session.setSkillBreakdown(convertMapToJson(score.skillScores()));
         session.setSubmittedAt(LocalDateTime.now());
         session.setIsCompleted(true);
         session.setStatus(autoSubmit ? "AUTO_SUBMITTED" : "SUBMITTED");
 
-        return testSessionRepository.save(session);
+        TestSession saved = testSessionRepository.save(session);
+        if (!freeText.isEmpty()) {
+            List<TextAnswer> textAnswers = new ArrayList<>(freeText.size());
+            freeText.forEach((questionId, answer) -> textAnswers
+                    .add(new TextAnswer(null, saved.getId(), questionId, answer)));
+            textAnswerRepository.saveAll(textAnswers);
+        }
+        skillScoreService.record(saved, key, score);
+        leaderboardService.recordCompleted(saved.getTest().getId(), saved.getId(), saved.getScore());
+        return saved;
     }
 
-    private Map<String, Map<String, Integer>> calculateScoreAndBreakdown(Test test, Map<Long, String> answers) {
-        Map<String, Integer> skillScores = new HashMap<>();
-
-        for (Question question : test.getQuestions()) {
-            String skill = question.getSkill();
-            skillScores.putIfAbsent(skill, 0);
+    /** Completes an adaptive session whose last answer met a stopping rule. */
+    @Transactional
+    public TestSession completeAdaptiveSession(long sessionId) {
+        TestSession session = testSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new RuntimeException("Test session not found"));
+        return finalizeSession(session, Map.of(), false);
+    }
 
-            String userAnswer = answers.get(question.getId());
-            if (userAnswer != null && isAnswerCorrect(question, userAnswer)) {
-                skillScores.put(skill, skillScores.get(skill) + question.getPoints());
-            }
+    // Adaptive answers stay JSON: there is no fixed question list to encode them against
+    private String writeAnswers(Map<Long, String> answers) {
+        try {
+            return objectMapper.writeValueAsString(answers);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to store answers", e);
         }
+    }
 
-        Map<String, Map<String, Integer>> result = new HashMap<>();
-        result.put("skillScores", skillScores);
-        return result;
+    /**
+     * The answers of a session as submitted, or as autosaved so far while it
+     * is in progress. Sessions completed before answers were encoded still
+     * carry them as JSON.
+     */
+    public Map<Long, String> getSubmittedAnswers(TestSession session) {
+        if (session.getAnswersBlob() == null) {
+            return answerAutosaveService.savedAnswers(session.getId(), session.getAnswers());
+        }
+        Map<Long, String> freeText = new HashMap<>();
+        for (TextAnswer answer : textAnswerRepository.findBySessionId(session.getId())) {
+            freeText.put(answer.getQuestionId(), answer.getAnswer());
+        }
+        return answerKeyCache.get(session.getTest().getId()).decode(session.getAnswersBlob(), freeText);
     }
 
-    private String convertMapToJson(Map<String, Integer> map) {
+    // Serialization helpers are package-private so the benchmarks module can measure them
+
+    String convertMapToJson(Map<String, Integer> map) {
         if (map == null || map.isEmpty())
             return "{}";
         StringBuilder json = new StringBuilder("{");
@@ -160,43 +320,7 @@ public class TestService {
         return json.toString();
     }
 
-    private boolean isAnswerCorrect(Question question, String userAnswer) {
-        String correctAnswer = question.getCorrectAnswer().trim();
-        String userAnswerTrimmed = userAnswer.trim();
-
-        switch (question.getType()) {
-            case MCQ:
-            case TRUE_FALSE:
-                return correctAnswer.equalsIgnoreCase(userAnswerTrimmed);
-            case SHORT_ANSWER:
-                // For short answers, do case-insensitive comparison
-                // In production, you might want more sophisticated matching
-                return correctAnswer.equalsIgnoreCase(userAnswerTrimmed);
-            default:
-                return false;
-        }
-    }
-
-    private String convertAnswersToJson(Map<Long, String> answers) {
-        // Simple JSON conversion - in production, use a proper JSON library
-        StringBuilder json = new StringBuilder("{");
-        boolean first = true;
-        for (Map.Entry<Long, String> entry : answers.entrySet()) {
-            if (!first)
-                json.append(",");
-            json.append("\"").append(entry.getKey()).append("\":\"").append(entry.getValue()).append("\"");
-            first = false;
-        }
-        json.append("}");
-        return json.toString();
-    }
-
-    public List<TestSession> getCandidateSessions(String username) {
-        User candidate = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return testSessionRepository.findByCandidate(candidate);
-    }
-
+    @Timed(value = "exam.rank", histogram = true)
     public Map<String, Object> getCandidateRank(@org.springframework.lang.NonNull Long sessionId) {
         TestSession session = testSessionRepository.findById(sessionId)
                 .orElseThrow(() -> new RuntimeException("Session not found"));
@@ -205,25 +329,11 @@ public class TestService {
             throw new RuntimeException("Test not completed");
         }
 
-        Test test = session.getTest();
-        List<TestSession> allSessions = testSessionRepository.findByTest(test).stream()
-                .filter(TestSession::getIsCompleted)
-                .sorted(Comparator.comparingInt(TestSession::getScore).reversed())
-                .toList();
-
-        int rank = 0;
-        for (int i = 0; i < allSessions.size(); i++) {
-            if (allSessions.get(i).getId().equals(sessionId)) {
-                rank = i + 1;
-                break;
-            }
-        }
-
-        double percentile = ((double) (allSessions.size() - rank) / allSessions.size()) * 100;
-
+        LeaderboardService.Standing standing = leaderboardService.standing(session.getTest().getId(),
+                session.getId(), session.getScore());
         return Map.of(
-                "rank", rank,
-                "totalCandidates", allSessions.size(),
-                "percentile", Math.round(percentile * 100.0) / 100.0);
+                "rank", standing.rank(),
+                "totalCandidates", standing.total(),
+                "percentile", Math.round(standing.percentile() * 100.0) / 100.0);
     }
 }
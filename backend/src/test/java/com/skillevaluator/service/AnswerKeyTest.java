@@ -0,0 +1,100 @@
+package com.skillevaluator.service;
+
+import com.skillevaluator.model.Question;
+import com.skillevaluator.model.QuestionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnswerKeyTest {
+
+    @Test
+    void decodesTheChoiceThatWasSubmitted() {
+        AnswerKey key = AnswerKey.of(1, List.of(question(10, "Red, Green, Blue", "Green"), question(11, null, "42")));
+
+        AnswerKey.Encoded encoded = key.encode(Map.of(10L, " green ", 11L, "forty-two"));
+
+        assertThat(encoded.freeText()).isEqualTo(Map.of(11L, "forty-two"));
+        assertThat(key.decode(encoded.blob(), encoded.freeText())).isEqualTo(Map.of(10L, "Green", 11L, "forty-two"));
+        assertThat(key.score(encoded.blob(), encoded.freeText()).total()).isEqualTo(1);
+    }
+
+    @Test
+    void reorderedOptionsStillResolveToTheSubmittedChoice() {
+        AnswerKey before = AnswerKey.of(1, List.of(question(10, "Red, Green, Blue", "Green")));
+        AnswerKey.Encoded encoded = before.encode(Map.of(10L, "Green"));
+
+        AnswerKey after = AnswerKey.of(1, List.of(question(10, "Yellow, Blue, Green, Red", "Green")));
+
+        assertThat(after.decode(encoded.blob(), encoded.freeText())).isEqualTo(Map.of(10L, "Green"));
+        assertThat(after.score(encoded.blob(), encoded.freeText()).total()).isEqualTo(1);
+    }
+
+    @Test
+    void editedOptionsKeepTheSubmittedAnswer() {
+        AnswerKey before = AnswerKey.of(1, List.of(question(10, "Red, Green, Blue", "Red")));
+        AnswerKey.Encoded encoded = before.encode(Map.of(10L, "Blue"));
+
+        AnswerKey after = AnswerKey.of(1, List.of(question(10, "Red, Green, Teal", "Red")));
+
+        assertThat(after.decode(encoded.blob(), encoded.freeText())).isEqualTo(Map.of(10L, "Blue"));
+        assertThat(after.score(encoded.blob(), encoded.freeText()).total()).isZero();
+    }
+
+    @Test
+    void questionRemovedFromTestAfterSubmitKeepsItsAnswer() {
+        AnswerKey before = AnswerKey.of(1, List.of(question(10, "Red, Green, Blue", "Green"),
+                question(11, "Yes, No", "Yes"), question(12, null, "42")));
+        AnswerKey.Encoded encoded = before.encode(Map.of(10L, "Green", 11L, "No", 12L, "42"));
+
+        AnswerKey after = AnswerKey.of(1, List.of(question(11, "Yes, No", "Yes")));
+
+        assertThat(after.decode(encoded.blob(), encoded.freeText()))
+                .isEqualTo(Map.of(10L, "Green", 11L, "No", 12L, "42"));
+        assertThat(after.score(encoded.blob(), encoded.freeText()).total()).isZero();
+    }
+
+    @Test
+    void hashedBlobsDoNotMapAnEditedChoiceOntoAnother() {
+        AnswerKey key = AnswerKey.of(1, List.of(question(10, "Red, Green, Blue", "Green")));
+        // Format 2, one answer: question 10, choice code 5 with the hash of "Teal", an option since edited away
+        int hash = "teal".hashCode() & 0xFFFF;
+        byte[] blob = { AnswerKey.HASHED_FORMAT_VERSION, 1, 10, 5, (byte) (hash >>> 8), (byte) hash };
+
+        assertThat(key.decode(blob, Map.of())).isEmpty();
+        assertThat(key.score(blob, Map.of()).total()).isZero();
+    }
+
+    @Test
+    void readsBlobsWrittenWithoutChoiceHashes() {
+        AnswerKey key = AnswerKey.of(1, List.of(question(10, "Red, Green, Blue", "Green")));
+        // Format 1, one answer: question 10, choice code 5 (the option text "Green", after the letters A-C)
+        byte[] blob = { AnswerKey.UNHASHED_FORMAT_VERSION, 1, 10, 5 };
+
+        assertThat(key.decode(blob, Map.of())).isEqualTo(Map.of(10L, "Green"));
+        assertThat(key.score(blob, Map.of()).total()).isEqualTo(1);
+    }
+
+    @Test
+    void questionListsRoundTripAsDistinctSortedIds() {
+        byte[] encoded = AnswerKey.encodeQuestionIds(new long[] { 300, 12, 7_000_000_000L, 12 });
+
+        assertThat(AnswerKey.decodeQuestionIds(encoded)).containsExactly(12, 300, 7_000_000_000L);
+        assertThat(AnswerKey.decodeQuestionIds(AnswerKey.encodeQuestionIds(new long[0]))).isEmpty();
+    }
+
+    private static Question question(long id, String options, String correctAnswer) {
+        Question question = new Question();
+        question.setId(id);
+        question.setText("Question " + id);
+        question.setType(options == null ? QuestionType.SHORT_ANSWER : QuestionType.MCQ);
+        question.setSkill("Colors");
+        question.setOptions(options);
+        question.setCorrectAnswer(correctAnswer);
+        question.setPoints(1);
+        return question;
+    }
+}
@@ -0,0 +1,86 @@
+package com.skillevaluator.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeaderboardTest {
+
+    @Test
+    void ranksHigherScoresFirstAndTiesBySessionId() {
+        Leaderboard board = new Leaderboard();
+        board.add(30, 70);
+        board.add(10, 90);
+        board.add(40, 70);
+        board.add(20, 70);
+        board.add(50, 50);
+
+        assertThat(board.rank(10, 90)).isEqualTo(1);
+        assertThat(board.rank(20, 70)).isEqualTo(2);
+        assertThat(board.rank(30, 70)).isEqualTo(3);
+        assertThat(board.rank(40, 70)).isEqualTo(4);
+        assertThat(board.rank(50, 50)).isEqualTo(5);
+        assertThat(board.total()).isEqualTo(5);
+    }
+
+    @Test
+    void addingTheSameSessionAgainIsIgnored() {
+        Leaderboard board = new Leaderboard();
+        board.add(1, 80);
+        board.add(2, 80);
+        board.add(1, 80);
+
+        assertThat(board.total()).isEqualTo(2);
+        assertThat(board.rank(2, 80)).isEqualTo(2);
+    }
+
+    @Test
+    void sessionsNotOnTheBoardRankZero() {
+        Leaderboard board = new Leaderboard();
+        board.add(1, 80);
+
+        assertThat(board.rank(2, 80)).isZero();
+        assertThat(board.rank(1, 60)).isZero();
+        assertThat(board.rank(3, 10)).isZero();
+    }
+
+    @Test
+    void keepsCountsWhenScoresOutgrowTheTree() {
+        Leaderboard board = new Leaderboard();
+        board.add(1, 10);
+        board.add(2, 63);
+        board.add(3, 500);
+        board.add(4, 63);
+        board.add(5, 0);
+
+        assertThat(board.rank(3, 500)).isEqualTo(1);
+        assertThat(board.rank(2, 63)).isEqualTo(2);
+        assertThat(board.rank(4, 63)).isEqualTo(3);
+        assertThat(board.rank(1, 10)).isEqualTo(4);
+        assertThat(board.rank(5, 0)).isEqualTo(5);
+    }
+
+    @Test
+    void percentileCountsTheSessionsRankedBelow() {
+        Leaderboard board = new Leaderboard();
+        board.add(1, 100);
+        board.add(2, 100);
+        board.add(3, 100);
+        board.add(4, 40);
+
+        assertThat(standing(board, 1, 100).percentile()).isEqualTo(75.0);
+        assertThat(standing(board, 3, 100).percentile()).isEqualTo(25.0);
+        assertThat(standing(board, 4, 40).percentile()).isZero();
+    }
+
+    @Test
+    void percentileIsZeroForAnEmptyBoardOrUnrankedSession() {
+        assertThat(new LeaderboardService.Standing(0, 0).percentile()).isZero();
+        assertThat(new LeaderboardService.Standing(0, 5).percentile()).isZero();
+        assertThat(new LeaderboardService.Standing(1, 1).percentile()).isZero();
+    }
+
+    private static LeaderboardService.Standing standing(Leaderboard board, long sessionId, int score) {
+        return new LeaderboardService.Standing(board.rank(sessionId, score), board.total());
+    }
+}
@@ -0,0 +1,58 @@
+package com.skillevaluator.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SessionExpirySchedulerTest {
+
+    private final SessionExpiryScheduler scheduler = new SessionExpiryScheduler();
+
+    @AfterEach
+    void stop() {
+        scheduler.stop();
+    }
+
+    @Test
+    void oneFailingSessionDoesNotHoldUpTheRestOfItsBatch() throws InterruptedException {
+        Set<Long> closed = ConcurrentHashMap.newKeySet();
+        TestService testService = mock(TestService.class);
+        when(testService.closeExpiredSessions(anyCollection())).thenAnswer(invocation -> {
+            List<Long> ids = List.copyOf(invocation.getArgument(0));
+            if (ids.contains(2L)) {
+                throw new IllegalStateException("Session 2 cannot be closed");
+            }
+            closed.addAll(ids);
+            return List.of();
+        });
+        ReflectionTestUtils.setField(scheduler, "testService", testService);
+        ReflectionTestUtils.setField(scheduler, "jdbcTemplate", mock(JdbcTemplate.class));
+        ReflectionTestUtils.setField(scheduler, "batchSize", 200);
+        ReflectionTestUtils.setField(scheduler, "retrySeconds", 30L);
+        ReflectionTestUtils.setField(scheduler, "maxRetrySeconds", 3600L);
+
+        LocalDateTime expired = LocalDateTime.now().minusMinutes(5);
+        scheduler.track(1, expired);
+        scheduler.track(2, expired);
+        scheduler.track(3, expired);
+        scheduler.start();
+
+        for (int i = 0; i < 100 && closed.size() < 2; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(closed).containsExactlyInAnyOrder(1L, 3L);
+        // Session 2 waits for its retry instead of failing the batch again right away
+        assertThat(scheduler.pending()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,128 @@
+package com.skillevaluator.service;
+
+import com.skillevaluator.model.Difficulty;
+import com.skillevaluator.model.Question;
+import com.skillevaluator.model.QuestionType;
+import com.skillevaluator.model.Role;
+import com.skillevaluator.model.TestSession;
+import com.skillevaluator.model.User;
+import com.skillevaluator.repository.QuestionRepository;
+import com.skillevaluator.repository.TestRepository;
+import com.skillevaluator.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the exam start path against N+1 regressions by counting the JDBC
+ * statements Hibernate prepares to build a test's snapshot, start a session
+ * and resume it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:startpath;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "management.server.port=-1",
+        "gemini.api.key=offline" })
+class StartPathQueryCountTest {
+
+    // Test with creator and questions
+    private static final long SNAPSHOT_BUDGET = 1;
+    // Open-session lookup, session insert, and an id sequence fetch every 50 sessions
+    private static final long START_BUDGET = 3;
+    // Open-session lookup
+    private static final long RESUME_BUDGET = 1;
+
+    @Autowired
+    private TestService testService;
+
+    @Autowired
+    private ExamSnapshotCache examSnapshotCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private TestRepository testRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private long testId;
+    private User candidate;
+
+    @BeforeEach
+    void seed() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        User recruiter = userRepository.save(user("recruiter-" + System.nanoTime(), Role.RECRUITER));
+        candidate = userRepository.save(user("candidate-" + System.nanoTime(), Role.CANDIDATE));
+
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Question question = new Question();
+            question.setText("Question " + i);
+            question.setType(QuestionType.MCQ);
+            question.setSkill(i % 2 == 0 ? "Java" : "SQL");
+            question.setDifficulty(Difficulty.MEDIUM);
+            question.setOptions("A, B, C, D");
+            question.setCorrectAnswer("A");
+            question.setPoints(1);
+            questions.add(question);
+        }
+        com.skillevaluator.model.Test test = new com.skillevaluator.model.Test();
+        test.setTitle("Start path");
+        test.setDurationMinutes(30);
+        test.setTotalPoints(questions.size());
+        test.setIsActive(true);
+        test.setCreatedBy(recruiter);
+        test.setCreatedAt(LocalDateTime.now());
+        testId = testService.createTestWithQuestions(test, questions).getId();
+    }
+
+    @Test
+    void startPathStaysWithinStatementBudget() {
+        examSnapshotCache.evictTest(testId);
+        statistics.clear();
+        ExamSnapshot snapshot = examSnapshotCache.get(testId);
+        assertThat(statistics.getPrepareStatementCount()).as("snapshot statements").isLessThanOrEqualTo(SNAPSHOT_BUDGET);
+        assertThat(snapshot.getQuestionCount()).isEqualTo(20);
+
+        statistics.clear();
+        TestSession started = testService.startTestSession(snapshot, candidate);
+        assertThat(statistics.getPrepareStatementCount()).as("start statements").isLessThanOrEqualTo(START_BUDGET);
+
+        statistics.clear();
+        TestSession resumed = testService.startTestSession(snapshot, candidate);
+        assertThat(statistics.getPrepareStatementCount()).as("resume statements").isLessThanOrEqualTo(RESUME_BUDGET);
+        assertThat(resumed.getId()).isEqualTo(started.getId());
+    }
+
+    private static User user(String username, Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("not-a-hash");
+        user.setRole(role);
+        return user;
+    }
+}
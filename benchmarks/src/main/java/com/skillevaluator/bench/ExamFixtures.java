@@ -0,0 +1,107 @@
+package com.skillevaluator.bench;
+
+import com.skillevaluator.model.*;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Deterministic test, question and answer data shaped like real exams:
+ * a mix of MCQ, true/false and short-answer questions over a handful of skills.
+ */
+public final class ExamFixtures {
+
+    public static final String[] SKILLS = { "Java", "Spring Boot", "SQL", "React", "Docker", "Algorithms" };
+
+    private ExamFixtures() {
+    }
+
+    public static User recruiter() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("recruiter");
+        user.setEmail("recruiter@example.com");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuuJ3tP1lM3zv1h6vCkN9a0wL5h3nYFbK6");
+        user.setRole(Role.RECRUITER);
+        return user;
+    }
+
+    public static Test test(int questionCount, long seed) {
+        Random random = new Random(seed);
+        Test test = new Test();
+        test.setId(seed);
+        test.setTitle("Backend Engineer Screening #" + seed);
+        test.setDescription("Assessment covering " + String.join(", ", SKILLS));
+        test.setCreatedBy(recruiter());
+        test.setDurationMinutes(60);
+        test.setIsActive(true);
+        test.setCreatedAt(LocalDateTime.of(2026, 1, 15, 9, 0));
+        test.setUpdatedAt(test.getCreatedAt());
+
+        int totalPoints = 0;
+        for (int i = 0; i < questionCount; i++) {
+            Question question = question(seed * 10_000 + i, random);
+            test.getQuestions().add(question);
+            totalPoints += question.getPoints();
+        }
+        test.setTotalPoints(totalPoints);
+        return test;
+    }
+
+    public static Question question(long id, Random random) {
+        Question question = new Question();
+        question.setId(id);
+        question.setSkill(SKILLS[random.nextInt(SKILLS.length)]);
+        question.setDifficulty(Difficulty.values()[random.nextInt(Difficulty.values().length)]);
+        question.setPoints(1 + random.nextInt(10));
+        question.setExplanation("Explanation for question " + id + " referencing the relevant documentation.");
+
+        int kind = random.nextInt(10);
+        if (kind < 7) {
+            question.setType(QuestionType.MCQ);
+            question.setText("Question " + id + ": Given the following snippet, which statement about thread "
+                    + "safety and memory visibility holds when the method is called concurrently?");
+            String[] options = new String[4];
+            for (int o = 0; o < options.length; o++) {
+                options[o] = "Option " + (char) ('A' + o) + " for question " + id;
+            }
+            question.setOptions(String.join(", ", options));
+            question.setCorrectAnswer(options[random.nextInt(options.length)]);
+        } else if (kind < 9) {
+            question.setType(QuestionType.TRUE_FALSE);
+            question.setText("Question " + id + ": The JVM guarantees that finalizers run before exit.");
+            question.setOptions("true, false");
+            question.setCorrectAnswer(random.nextBoolean() ? "true" : "false");
+        } else {
+            question.setType(QuestionType.SHORT_ANSWER);
+            question.setText("Question " + id + ": Name the HTTP status code returned for a missing resource.");
+            question.setCorrectAnswer("  Not Found ");
+        }
+        return question;
+    }
+
+    /**
+     * Answers every question, roughly {@code correctRatio} of them correctly,
+     * with the casing and whitespace noise real submissions carry.
+     */
+    public static Map<Long, String> answers(Test test, double correctRatio, long seed) {
+        Random random = new Random(seed);
+        Map<Long, String> answers = new HashMap<>();
+        for (Question question : test.getQuestions()) {
+            String answer = random.nextDouble() < correctRatio
+                    ? " " + question.getCorrectAnswer().trim().toUpperCase() + " "
+                    : "wrong answer " + random.nextInt(4);
+            answers.put(question.getId(), answer);
+        }
+        return answers;
+    }
+
+    public static Map<String, Integer> skillScores(long seed) {
+        Random random = new Random(seed);
+        Map<String, Integer> scores = new HashMap<>();
+        for (String skill : SKILLS) {
+            scores.put(skill, random.nextInt(100));
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,120 @@
+package com.skillevaluator.bench;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures how many blocking requests the servlet stack keeps in flight with
+ * platform threads versus {@code spring.threads.virtual.enabled=true}.
+ *
+ * The endpoint sleeps to stand in for a Gemini call or a DB wait. Run with:
+ * {@code java -cp target/benchmarks.jar com.skillevaluator.bench.InFlightRequestsBenchmark [requests] [blockMillis]}
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {
+        DataSourceAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class,
+        JpaRepositoriesAutoConfiguration.class,
+        SecurityAutoConfiguration.class,
+        SecurityFilterAutoConfiguration.class,
+        UserDetailsServiceAutoConfiguration.class })
+@RestController
+public class InFlightRequestsBenchmark {
+
+    static final AtomicInteger inFlight = new AtomicInteger();
+    static final AtomicInteger maxInFlight = new AtomicInteger();
+    static long blockMillis = 500;
+
+    @GetMapping("/blocking")
+    public String blocking() throws InterruptedException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            Thread.sleep(blockMillis);
+            return "ok";
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        blockMillis = args.length > 1 ? Long.parseLong(args[1]) : 500;
+
+        System.out.printf("%d concurrent requests, each blocking %d ms%n%n", requests, blockMillis);
+        System.out.printf("%-16s %14s %12s %14s%n", "mode", "max in flight", "wall (ms)", "throughput/s");
+        for (boolean virtual : new boolean[] { false, true }) {
+            Result result = run(virtual, requests);
+            System.out.printf("%-16s %14d %12d %14.0f%n",
+                    virtual ? "virtual" : "platform (200)", result.maxInFlight(), result.wallMillis(),
+                    requests * 1000.0 / result.wallMillis());
+        }
+    }
+
+    record Result(int maxInFlight, long wallMillis) {
+    }
+
+    static Result run(boolean virtualThreads, int requests) throws Exception {
+        inFlight.set(0);
+        maxInFlight.set(0);
+
+        // Passed as arguments so they win over the backend's application.properties
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(InFlightRequestsBenchmark.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--spring.threads.virtual.enabled=" + virtualThreads);
+        try (ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(clientExecutor)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/blocking"))
+                    .timeout(Duration.ofMinutes(2))
+                    .build();
+
+            // Warm up the connector and the handler path
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+            maxInFlight.set(0);
+
+            long start = System.nanoTime();
+            List<CompletableFuture<HttpResponse<Void>>> futures = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+            long wallMillis = (System.nanoTime() - start) / 1_000_000;
+
+            return new Result(maxInFlight.get(), wallMillis);
+        } finally {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.skillevaluator.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.skillevaluator.dto.TestSessionResponse;
+import com.skillevaluator.model.Question;
+import com.skillevaluator.model.Test;
+import com.skillevaluator.service.ExamSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the /start response: Jackson serialization of the entity graph
+ * (configured like Spring Boot's auto-configured ObjectMapper) versus
+ * splicing a pre-serialized {@link ExamSnapshot}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionSerializationBenchmark {
+
+    @Param({ "10", "50", "100", "500" })
+    public int questions;
+
+    private ObjectMapper objectMapper;
+    private TestSessionResponse response;
+    private ExamSnapshot snapshot;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        Test test = ExamFixtures.test(questions, 42);
+        snapshot = ExamSnapshot.of(test, objectMapper);
+        List<Question> shuffled = new ArrayList<>(test.getQuestions());
+        Collections.shuffle(shuffled, new Random(1));
+        // Mirrors CandidateController.startTest, which strips answers before responding
+        shuffled.forEach(q -> {
+            q.setCorrectAnswer(null);
+            q.setExplanation(null);
+        });
+        response = new TestSessionResponse(test, shuffled, 123_456L, 3_600);
+    }
+
+    @Benchmark
+    public byte[] serializeTestSessionResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] renderExamSnapshot() {
+        return snapshot.render(123_456L, 3_600, snapshot.shuffledOrder());
+    }
+}
@@ -0,0 +1,81 @@
+package com.skillevaluator.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request cost of the old validate-then-parse path in
+ * JwtAuthenticationFilter against single-pass verification, with and without
+ * the verified-token cache, plus raw token generation and validation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+
+    static final String SECRET = "your-256-bit-secret-key-change-this-in-production-minimum-32-characters";
+
+    private JwtTokenProvider cachingProvider;
+    private JwtTokenProvider uncachedProvider;
+    private String token;
+
+    @Setup
+    public void setup() {
+        cachingProvider = newProvider(10_000);
+        uncachedProvider = newProvider(0);
+        token = cachingProvider.generateToken("candidate42", "CANDIDATE");
+    }
+
+    static JwtTokenProvider newProvider(int cacheMaxSize) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(provider, "cacheMaxSize", cacheMaxSize);
+        provider.init();
+        return provider;
+    }
+
+    /**
+     * The previous filter path: validateToken followed by getUsernameFromToken,
+     * each rebuilding the key and parser and verifying the signature.
+     */
+    @Benchmark
+    public String legacyValidateThenParse() {
+        SecretKey validateKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Jwts.parser().verifyWith(validateKey).build().parseSignedClaims(token);
+
+        SecretKey parseKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Claims claims = Jwts.parser().verifyWith(parseKey).build().parseSignedClaims(token).getPayload();
+        return claims.getSubject();
+    }
+
+    @Benchmark
+    public String singlePassUncached() {
+        return uncachedProvider.verifyToken(token).orElseThrow().username();
+    }
+
+    @Benchmark
+    public String singlePassCached() {
+        return cachingProvider.verifyToken(token).orElseThrow().username();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return uncachedProvider.generateToken("candidate42", "CANDIDATE");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return uncachedProvider.validateToken(token);
+    }
+}
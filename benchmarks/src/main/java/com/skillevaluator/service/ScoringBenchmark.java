@@ -0,0 +1,101 @@
+package com.skillevaluator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillevaluator.bench.ExamFixtures;
+import com.skillevaluator.model.Question;
+import com.skillevaluator.model.Test;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of scoring and serializing a submission, by test size. The
+ * pre-compilation scoring loop is kept here as a baseline for {@link AnswerKey},
+ * and the JSON answer map that autosave stores while a session is in progress
+ * as a baseline for the encoded form written on submit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScoringBenchmark {
+
+    @Param({ "10", "50", "100", "500" })
+    public int questions;
+
+    private TestService testService;
+    private ObjectMapper objectMapper;
+    private Test test;
+    private AnswerKey answerKey;
+    private Map<Long, String> answers;
+    private Map<String, Integer> skillScores;
+    private AnswerKey.Encoded encoded;
+
+    @Setup
+    public void setup() {
+        testService = new TestService();
+        objectMapper = new ObjectMapper();
+        test = ExamFixtures.test(questions, 42);
+        answers = ExamFixtures.answers(test, 0.7, 7);
+        answerKey = AnswerKey.of(test);
+        skillScores = answerKey.score(answers).skillScores();
+        encoded = answerKey.encode(answers);
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Integer>> legacyCalculateScoreAndBreakdown() {
+        Map<String, Integer> skillScores = new HashMap<>();
+        for (Question question : test.getQuestions()) {
+            String skill = question.getSkill();
+            skillScores.putIfAbsent(skill, 0);
+
+            String userAnswer = answers.get(question.getId());
+            if (userAnswer != null && question.getCorrectAnswer().trim().equalsIgnoreCase(userAnswer.trim())) {
+                skillScores.put(skill, skillScores.get(skill) + question.getPoints());
+            }
+        }
+        Map<String, Map<String, Integer>> result = new HashMap<>();
+        result.put("skillScores", skillScores);
+        return result;
+    }
+
+    @Benchmark
+    public AnswerKey.Score answerKeyScore() {
+        return answerKey.score(answers);
+    }
+
+    @Benchmark
+    public AnswerKey compileAnswerKey() {
+        return AnswerKey.of(test);
+    }
+
+    @Benchmark
+    public String answersJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(answers);
+    }
+
+    @Benchmark
+    public AnswerKey.Encoded encodeAnswers() {
+        return answerKey.encode(answers);
+    }
+
+    @Benchmark
+    public Map<Long, String> decodeAnswers() {
+        return answerKey.decode(encoded.blob(), encoded.freeText());
+    }
+
+    @Benchmark
+    public AnswerKey.Score scoreEncoded() {
+        return answerKey.score(encoded.blob(), encoded.freeText());
+    }
+
+    @Benchmark
+    public String convertMapToJson() {
+        return testService.convertMapToJson(skillScores);
+    }
+}
@@ -23,6 +23,7 @@ import api from '../services/api'
 function CandidateResults() {
   const navigate = useNavigate()
   const [sessions, setSessions] = useState([])
+  const [nextCursor, setNextCursor] = useState(null)
   const [loading, setLoading] = useState(true)
   const [error, setError] = useState('')
 
@@ -30,10 +31,12 @@ function CandidateResults() {
     fetchSessions()
   }, [])
 
-  const fetchSessions = async () => {
+  // One page at a time; "Load more" asks for the page after the last one shown
+  const fetchSessions = async (cursor = null) => {
     try {
-      const response = await api.get('/candidate/sessions')
-      setSessions(response.data.filter((s) => s.isCompleted))
+      const response = await api.get('/candidate/sessions', { params: { completed: true, cursor } })
+      setSessions((shown) => (cursor ? [...shown, ...response.data.items] : response.data.items))
+      setNextCursor(response.data.nextCursor)
     } catch (err) {
       setError('Failed to load results')
     } finally {
@@ -118,7 +121,7 @@ function CandidateResults() {
             <TableBody>
               {sessions.map((session) => (
                 <TableRow key={session.id}>
-                  <TableCell>{session.test?.title || 'Unknown Test'}</TableCell>
+                  <TableCell>{session.testTitle || 'Unknown Test'}</TableCell>
                   <TableCell>
                     {session.submittedAt
                       ? new Date(session.submittedAt).toLocaleString()
@@ -154,6 +157,11 @@ function CandidateResults() {
               ))}
             </TableBody>
           </Table>
+          {nextCursor && (
+            <Box sx={{ p: 2, textAlign: 'center' }}>
+              <Button onClick={() => fetchSessions(nextCursor)}>Load more</Button>
+            </Box>
+          )}
         </TableContainer>
       )}
       </Container>
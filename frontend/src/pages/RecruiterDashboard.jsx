@@ -67,6 +67,7 @@ function RecruiterDashboard() {
   const [editingTest, setEditingTest] = useState(null)
   const [editingQuestion, setEditingQuestion] = useState(null)
   const [completedSessions, setCompletedSessions] = useState([])
+  const [completedCursor, setCompletedCursor] = useState(null)
   const [selectedSessions, setSelectedSessions] = useState([])
   const [selectedQuestionIds, setSelectedQuestionIds] = useState([])
   const [reportDetails, setReportDetails] = useState(null)
@@ -140,9 +141,11 @@ function RecruiterDashboard() {
     setAnalytics(response.data)
   }
 
-  const fetchCompletedSessions = async () => {
-    const response = await api.get('/recruiter/sessions/completed')
-    setCompletedSessions(response.data)
+  // One page at a time; "Load more" asks for the page after the last one shown
+  const fetchCompletedSessions = async (cursor = null) => {
+    const response = await api.get('/recruiter/sessions/completed', { params: { cursor } })
+    setCompletedSessions((shown) => (cursor ? [...shown, ...response.data.items] : response.data.items))
+    setCompletedCursor(response.data.nextCursor)
   }
 
   const handleTestDialogOpen = (test = null) => {
@@ -640,8 +643,8 @@ function RecruiterDashboard() {
                           onChange={() => handleSessionSelection(session.id)}
                         />
                       </TableCell>
-                      <TableCell>{session.candidate?.username}</TableCell>
-                      <TableCell>{session.test?.title}</TableCell>
+                      <TableCell>{session.candidateUsername}</TableCell>
+                      <TableCell>{session.testTitle}</TableCell>
                       <TableCell>
                         <Typography fontWeight={700} color="primary">
                           {session.score}/{session.totalPoints}
@@ -667,6 +670,11 @@ function RecruiterDashboard() {
                   )}
                 </TableBody>
               </Table>
+              {completedCursor && (
+                <Box sx={{ p: 2, textAlign: 'center' }}>
+                  <Button onClick={() => fetchCompletedSessions(completedCursor)}>Load more</Button>
+                </Box>
+              )}
             </TableContainer>
           </Paper>
         )}
@@ -682,7 +690,7 @@ function RecruiterDashboard() {
                   {completedSessions.map((session) => (
                     <Box key={session.id} sx={{ p: 2, border: '1px solid', borderColor: 'divider', borderRadius: 2, display: 'flex', justifyContent: 'space-between', alignItems: 'center' }}>
                       <Box>
-                        <Typography sx={{ fontWeight: 600 }}>{session.candidate?.username} - {session.test?.title}</Typography>
+                        <Typography sx={{ fontWeight: 600 }}>{session.candidateUsername} - {session.testTitle}</Typography>
                         <Typography variant="caption" color="textSecondary">Submitted on {new Date(session.submittedAt).toLocaleString()}</Typography>
                       </Box>
                       <Button variant="text" startIcon={<TrendingUp />} onClick={() => handleOpenReport(session.id)}>View Report</Button>
@@ -691,6 +699,9 @@ function RecruiterDashboard() {
                   {completedSessions.length === 0 && (
                     <Typography align="center">No evalution reports available yet.</Typography>
                   )}
+                  {completedCursor && (
+                    <Button onClick={() => fetchCompletedSessions(completedCursor)}>Load more</Button>
+                  )}
                 </Box>
               </Paper>
             </Grid>
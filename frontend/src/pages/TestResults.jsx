@@ -15,6 +15,7 @@ import {
   Card,
   CardContent,
   Grid,
+  Button,
 } from '@mui/material'
 import Layout from '../components/Layout'
 import api from '../services/api'
@@ -22,6 +23,7 @@ import api from '../services/api'
 function TestResults() {
   const { testId } = useParams()
   const [sessions, setSessions] = useState([])
+  const [nextCursor, setNextCursor] = useState(null)
   const [test, setTest] = useState(null)
   const [loading, setLoading] = useState(true)
   const [error, setError] = useState('')
@@ -36,7 +38,8 @@ function TestResults() {
         api.get(`/recruiter/tests/${testId}/sessions`),
         api.get(`/recruiter/tests/${testId}`),
       ])
-      setSessions(sessionsRes.data)
+      setSessions(sessionsRes.data.items)
+      setNextCursor(sessionsRes.data.nextCursor)
       setTest(testRes.data)
     } catch (err) {
       setError('Failed to load results')
@@ -45,6 +48,16 @@ function TestResults() {
     }
   }
 
+  const fetchMoreSessions = async () => {
+    try {
+      const response = await api.get(`/recruiter/tests/${testId}/sessions`, { params: { cursor: nextCursor } })
+      setSessions((shown) => [...shown, ...response.data.items])
+      setNextCursor(response.data.nextCursor)
+    } catch (err) {
+      setError('Failed to load more results')
+    }
+  }
+
   const getStatusColor = (status) => {
     switch (status) {
       case 'SUBMITTED':
@@ -92,7 +105,7 @@ function TestResults() {
         <Grid item xs={12} sm={4}>
           <Card>
             <CardContent>
-              <Typography color="textSecondary">Total Attempts</Typography>
+              <Typography color="textSecondary">Attempts Shown</Typography>
               <Typography variant="h5">{sessions.length}</Typography>
             </CardContent>
           </Card>
@@ -100,7 +113,7 @@ function TestResults() {
         <Grid item xs={12} sm={4}>
           <Card>
             <CardContent>
-              <Typography color="textSecondary">Completed</Typography>
+              <Typography color="textSecondary">Completed (shown)</Typography>
               <Typography variant="h5">
                 {sessions.filter((s) => s.isCompleted).length}
               </Typography>
@@ -110,7 +123,7 @@ function TestResults() {
         <Grid item xs={12} sm={4}>
           <Card>
             <CardContent>
-              <Typography color="textSecondary">Average Score</Typography>
+              <Typography color="textSecondary">Average Score (shown)</Typography>
               <Typography variant="h5">{calculateAverage()}%</Typography>
             </CardContent>
           </Card>
@@ -132,7 +145,7 @@ function TestResults() {
             {sessions.map((session) => (
               <TableRow key={session.id}>
                 <TableCell>
-                  {session.candidate?.username || 'Unknown'}
+                  {session.candidateUsername || 'Unknown'}
                 </TableCell>
                 <TableCell>
                   {new Date(session.startedAt).toLocaleString()}
@@ -161,6 +174,11 @@ function TestResults() {
             ))}
           </TableBody>
         </Table>
+        {nextCursor && (
+          <Box sx={{ p: 2, textAlign: 'center' }}>
+            <Button onClick={fetchMoreSessions}>Load more</Button>
+          </Box>
+        )}
         </TableContainer>
       </Container>
     </Layout>
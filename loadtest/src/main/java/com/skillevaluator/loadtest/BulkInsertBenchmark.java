@@ -0,0 +1,134 @@
+package com.skillevaluator.loadtest;
+
+import com.skillevaluator.SkillEvaluatorApplication;
+import com.skillevaluator.model.Difficulty;
+import com.skillevaluator.model.Question;
+import com.skillevaluator.model.QuestionType;
+import com.skillevaluator.model.Role;
+import com.skillevaluator.model.Test;
+import com.skillevaluator.model.User;
+import com.skillevaluator.repository.UserRepository;
+import com.skillevaluator.service.TestService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Insert throughput of a generated test: its questions, the test and the
+ * {@code test_questions} links, saved in one transaction through
+ * {@link TestService#createTestWithQuestions}. Runs once with the identity
+ * ids the entities used to have (mapped back by {@code identity-ids.xml}) and
+ * once with the pooled sequences and JDBC batching they use now.
+ *
+ * <pre>
+ * java -cp target/skill-evaluator-loadtest-1.0.0.jar -Dloader.main=com.skillevaluator.loadtest.BulkInsertBenchmark \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher [questions] [rounds]
+ * </pre>
+ */
+public class BulkInsertBenchmark {
+
+    public static void main(String[] args) {
+        int questions = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Result identity = run("identity", questions, rounds, "--spring.jpa.mapping-resources=META-INF/identity-ids.xml");
+        Result pooled = run("pooled", questions, rounds);
+
+        System.out.printf("%n%-10s %12s %12s %14s%n", "ids", "median ms", "rows/s", "statements");
+        for (Result result : List.of(identity, pooled)) {
+            System.out.printf("%-10s %12d %12d %14d%n", result.mode(), result.medianMillis(),
+                    result.rowsPerSecond(), result.statements());
+        }
+        System.out.printf("Pooled sequences with batching: %.1fx the insert throughput%n",
+                (double) pooled.rowsPerSecond() / identity.rowsPerSecond());
+    }
+
+    record Result(String mode, long medianMillis, long rowsPerSecond, long statements) {
+    }
+
+    private static Result run(String mode, int questions, int rounds, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--management.server.port=-1",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.datasource.url=jdbc:h2:mem:bulk-" + mode + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--gemini.api.key=offline"));
+        args.addAll(List.of(extraArgs));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SkillEvaluatorApplication.class)
+                .run(args.toArray(String[]::new))) {
+            TestService testService = context.getBean(TestService.class);
+            Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class)
+                    .getStatistics();
+            User creator = context.getBean(UserRepository.class).save(recruiter());
+
+            // Two untimed rounds to warm up the JIT and the connection pool
+            for (int round = 0; round < 2; round++) {
+                testService.createTestWithQuestions(test(creator), questions(questions));
+            }
+
+            long[] millis = new long[rounds];
+            long statements = 0;
+            for (int round = 0; round < rounds; round++) {
+                List<Question> batch = questions(questions);
+                statistics.clear();
+                long start = System.nanoTime();
+                testService.createTestWithQuestions(test(creator), batch);
+                millis[round] = (System.nanoTime() - start) / 1_000_000;
+                statements = statistics.getPrepareStatementCount();
+            }
+            Arrays.sort(millis);
+            long median = Math.max(1, millis[rounds / 2]);
+            // Each question is two rows: the question and its test_questions link
+            return new Result(mode, median, 2L * questions * 1000 / median, statements);
+        }
+    }
+
+    private static User recruiter() {
+        User user = new User();
+        user.setUsername("bulk-insert-recruiter");
+        user.setEmail("bulk-insert-recruiter@loadtest.local");
+        user.setPassword("unused");
+        user.setRole(Role.RECRUITER);
+        return user;
+    }
+
+    private static Test test(User creator) {
+        Test test = new Test();
+        test.setTitle("Bulk insert benchmark");
+        test.setCreatedBy(creator);
+        test.setDurationMinutes(60);
+        test.setTotalPoints(0);
+        return test;
+    }
+
+    private static List<Question> questions(int count) {
+        List<Question> questions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Question question = new Question();
+            question.setText("Bulk question " + i + ": which statement about this scenario is correct?");
+            question.setType(QuestionType.MCQ);
+            question.setSkill(DataSeeder.SKILLS[i % DataSeeder.SKILLS.length]);
+            question.setDifficulty(Difficulty.values()[i % Difficulty.values().length]);
+            question.setOptions("Option A, Option B, Option C, Option D");
+            question.setCorrectAnswer("Option " + (char) ('A' + i % 4));
+            question.setExplanation("Generated explanation for bulk question " + i);
+            question.setPoints(1 + i % 5);
+            questions.add(question);
+        }
+        return questions;
+    }
+}
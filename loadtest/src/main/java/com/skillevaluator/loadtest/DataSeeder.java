@@ -0,0 +1,202 @@
+package com.skillevaluator.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Fills an empty schema with a synthetic exam-day dataset using JDBC batch
+ * inserts. Ids are assigned here (1..n per table) so the simulation can
+ * address users and tests without reading them back; the id sequences have
+ * to be moved past them afterwards with {@code IdSequenceAligner}.
+ */
+public class DataSeeder {
+
+    public static final String PASSWORD = "loadtest-password";
+
+    static final String[] SKILLS = { "Java", "Spring Boot", "SQL", "React", "Docker", "Algorithms", "Python",
+            "Kubernetes" };
+    static final String[] DIFFICULTIES = { "EASY", "MEDIUM", "HARD" };
+
+    private static final int BATCH_SIZE = 5_000;
+
+    private final JdbcTemplate jdbc;
+    private final LoadTestOptions options;
+    private final SplittableRandom random = new SplittableRandom(20261018L);
+
+    public DataSeeder(JdbcTemplate jdbc, LoadTestOptions options) {
+        this.jdbc = jdbc;
+        this.options = options;
+    }
+
+    public static String recruiterName(int i) {
+        return "recruiter" + i;
+    }
+
+    public static String candidateName(int i) {
+        return "candidate" + i;
+    }
+
+    public void seed() {
+        long start = System.nanoTime();
+        String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+
+        seedUsers(passwordHash);
+        int[] questionPoints = seedQuestions();
+        int[] testPoints = seedTests(questionPoints);
+        seedSessions(testPoints);
+
+        System.out.printf("Seeded %,d recruiters, %,d candidates, %,d tests, %,d questions, %,d sessions in %,d s%n",
+                options.recruiters(), options.candidates(), options.tests(), options.questions(),
+                options.sessions(), (System.nanoTime() - start) / 1_000_000_000);
+    }
+
+    private void seedUsers(String passwordHash) {
+        String sql = "INSERT INTO users (id, username, email, password, role, enabled, account_non_expired, "
+                + "account_non_locked, credentials_non_expired) VALUES (?, ?, ?, ?, ?, TRUE, TRUE, TRUE, TRUE)";
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        long id = 1;
+        batch.add(new Object[] { id++, "admin", "admin@loadtest.local", passwordHash, "ADMIN" });
+        for (int i = 1; i <= options.recruiters(); i++) {
+            String name = recruiterName(i);
+            batch.add(new Object[] { id++, name, name + "@loadtest.local", passwordHash, "RECRUITER" });
+        }
+        for (int i = 1; i <= options.candidates(); i++) {
+            String name = candidateName(i);
+            batch.add(new Object[] { id++, name, name + "@loadtest.local", passwordHash, "CANDIDATE" });
+            batch = flushIfFull(sql, batch);
+        }
+        flush(sql, batch);
+    }
+
+    /** The adaptive test, seeded after the fixed ones; no historical sessions use it. */
+    static long adaptiveTestId(LoadTestOptions options) {
+        return options.tests() + 1L;
+    }
+
+    /** Recruiter user ids are 2..recruiters+1, candidates follow. */
+    static long recruiterId(int i) {
+        return 1 + i;
+    }
+
+    private int[] seedQuestions() {
+        String sql = "INSERT INTO questions (id, text, type, skill, difficulty, options, correct_answer, "
+                + "explanation, points) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        int[] points = new int[options.questions() + 1];
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int id = 1; id <= options.questions(); id++) {
+            String skill = SKILLS[random.nextInt(SKILLS.length)];
+            String difficulty = DIFFICULTIES[random.nextInt(DIFFICULTIES.length)];
+            points[id] = 1 + random.nextInt(5);
+
+            String type;
+            String optionList;
+            String correct;
+            if (random.nextInt(10) < 8) {
+                type = "MCQ";
+                optionList = "Option A" + id + ", Option B" + id + ", Option C" + id + ", Option D" + id;
+                correct = "Option " + (char) ('A' + random.nextInt(4)) + id;
+            } else {
+                type = "TRUE_FALSE";
+                optionList = "true, false";
+                correct = random.nextBoolean() ? "true" : "false";
+            }
+            batch.add(new Object[] { id,
+                    "[" + skill + "] Question " + id + ": which statement about this " + difficulty.toLowerCase()
+                            + " scenario is correct?",
+                    type, skill, difficulty, optionList, correct,
+                    "Generated explanation for question " + id, points[id] });
+            batch = flushIfFull(sql, batch);
+        }
+        flush(sql, batch);
+        return points;
+    }
+
+    private int[] seedTests(int[] questionPoints) {
+        String testSql = "INSERT INTO tests (id, title, description, created_by, duration_minutes, total_points, "
+                + "is_active, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String linkSql = "INSERT INTO test_questions (test_id, question_id) VALUES (?, ?)";
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now().minusDays(30));
+
+        int[] testPoints = new int[options.tests() + 1];
+        List<Object[]> tests = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> links = new ArrayList<>(BATCH_SIZE);
+        for (int id = 1; id <= options.tests(); id++) {
+            int totalPoints = 0;
+            for (int questionId : pickQuestions()) {
+                links.add(new Object[] { id, questionId });
+                totalPoints += questionPoints[questionId];
+                links = flushIfFull(linkSql, links);
+            }
+            testPoints[id] = totalPoints;
+            long recruiter = recruiterId(1 + (id - 1) % options.recruiters());
+            tests.add(new Object[] { id, "Load test assessment " + id, "Synthetic assessment " + id, recruiter,
+                    60, totalPoints, true, createdAt, createdAt });
+            tests = flushIfFull(testSql, tests);
+        }
+        flush(testSql, tests);
+        flush(linkSql, links);
+
+        jdbc.update("INSERT INTO tests (id, title, description, created_by, duration_minutes, total_points, "
+                + "is_active, created_at, updated_at, adaptive, adaptive_skills, adaptive_items) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", adaptiveTestId(options), "Load test adaptive assessment",
+                "Synthetic adaptive assessment", recruiterId(1), 60, 100, true, createdAt, createdAt, true,
+                String.join(",", SKILLS), 15);
+        return testPoints;
+    }
+
+    private int[] pickQuestions() {
+        int count = Math.min(options.questionsPerTest(), options.questions());
+        Set<Integer> picked = new LinkedHashSet<>();
+        while (picked.size() < count) {
+            picked.add(1 + random.nextInt(options.questions()));
+        }
+        return picked.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void seedSessions(int[] testPoints) {
+        String sql = "INSERT INTO test_sessions (id, test_id, candidate_id, started_at, submitted_at, expires_at, "
+                + "is_completed, score, total_points, skill_breakdown, status) "
+                + "VALUES (?, ?, ?, ?, ?, ?, TRUE, ?, ?, ?, 'SUBMITTED')";
+        long firstCandidateId = recruiterId(options.recruiters()) + 1;
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int id = 1; id <= options.sessions(); id++) {
+            int testId = 1 + random.nextInt(options.tests());
+            long candidateId = firstCandidateId + random.nextInt(options.candidates());
+            LocalDateTime startedAt = now.minusMinutes(90 + random.nextInt(60 * 24 * 60));
+            int totalPoints = testPoints[testId];
+            int score = random.nextInt(totalPoints + 1);
+            String skill = SKILLS[random.nextInt(SKILLS.length)];
+            batch.add(new Object[] { id, testId, candidateId,
+                    Timestamp.valueOf(startedAt),
+                    Timestamp.valueOf(startedAt.plusMinutes(5 + random.nextInt(55))),
+                    Timestamp.valueOf(startedAt.plusMinutes(60)),
+                    score, totalPoints, "{\"" + skill + "\":" + score + "}" });
+            batch = flushIfFull(sql, batch);
+        }
+        flush(sql, batch);
+    }
+
+    private List<Object[]> flushIfFull(String sql, List<Object[]> batch) {
+        if (batch.size() < BATCH_SIZE) {
+            return batch;
+        }
+        flush(sql, batch);
+        return new ArrayList<>(BATCH_SIZE);
+    }
+
+    private void flush(String sql, List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(sql, batch);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.skillevaluator.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drives concurrent candidates through login, start, autosave, submit and
+ * rank, then an adaptive test, while recruiters poll the dashboard endpoints,
+ * recording every call's latency.
+ */
+public class ExamDaySimulation {
+
+    private final String baseUrl;
+    private final LoadTestOptions options;
+    private final LatencyReport report = new LatencyReport();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client;
+
+    public ExamDaySimulation(String baseUrl, LoadTestOptions options, ExecutorService clientExecutor) {
+        this.baseUrl = baseUrl;
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    public LatencyReport run() throws InterruptedException {
+        AtomicBoolean candidatesDone = new AtomicBoolean();
+        long start = System.nanoTime();
+
+        try (ExecutorService recruiters = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int r = 0; r < options.concurrentRecruiters(); r++) {
+                int recruiter = 1 + r % options.recruiters();
+                recruiters.submit(() -> recruiterLoop(recruiter, candidatesDone));
+            }
+
+            try (ExecutorService candidates = Executors.newVirtualThreadPerTaskExecutor()) {
+                // Spread the cohort over the candidate pool so each virtual user is a distinct account
+                int stride = Math.max(1, options.candidates() / options.concurrentCandidates());
+                for (int c = 0; c < options.concurrentCandidates(); c++) {
+                    int candidate = 1 + c * stride;
+                    long seed = c;
+                    candidates.submit(() -> candidateLoop(candidate, seed));
+                }
+                candidates.shutdown();
+                candidates.awaitTermination(1, TimeUnit.DAYS);
+            }
+            candidatesDone.set(true);
+        }
+
+        report.print(System.nanoTime() - start);
+        return report;
+    }
+
+    private void candidateLoop(int candidate, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        try {
+            String token = login(DataSeeder.candidateName(candidate));
+            for (int exam = 0; exam < options.examsPerCandidate(); exam++) {
+                int testId = 1 + random.nextInt(options.tests());
+
+                JsonNode started = call("start", "POST", "/api/candidate/tests/" + testId + "/start", token, null);
+                if (started == null) {
+                    continue;
+                }
+
+                // Answer question by question, autosaving each one as the exam page does
+                long sessionId = started.path("sessionId").asLong();
+                Map<String, String> answers = new HashMap<>();
+                for (JsonNode question : started.path("questions")) {
+                    String[] choices = question.path("options").asText("true, false").split(",");
+                    String questionId = question.path("id").asText();
+                    String answer = choices[random.nextInt(choices.length)].trim();
+                    answers.put(questionId, answer);
+                    call("autosave", "PUT", "/api/candidate/sessions/" + sessionId + "/answers", token,
+                            Map.of("answers", Map.of(questionId, answer)));
+                }
+                if (exam % 2 == 0) {
+                    call("submit", "POST", "/api/candidate/tests/" + testId + "/submit", token,
+                            Map.of("answers", answers, "autoSubmit", false));
+                } else if (!submitAsync(testId, token, answers)) {
+                    continue;
+                }
+
+                call("rank", "GET", "/api/candidate/sessions/" + sessionId + "/rank",
+                        token, null);
+            }
+            takeAdaptiveTest(token, random);
+        } catch (Exception e) {
+            report.record("candidate-aborted", 0, false);
+        }
+    }
+
+    // One question per call until the engine stops the session
+    private void takeAdaptiveTest(String token, SplittableRandom random) throws IOException, InterruptedException {
+        JsonNode step = call("adaptive/start", "POST", "/api/candidate/tests/" + DataSeeder.adaptiveTestId(options)
+                + "/start", token, null);
+        if (step == null) {
+            return;
+        }
+        long sessionId = step.path("sessionId").asLong();
+        while (step != null && !step.path("done").asBoolean()) {
+            JsonNode question = step.path("question");
+            String[] choices = question.path("options").asText("true, false").split(",");
+            step = call("adaptive/answer", "POST", "/api/candidate/sessions/" + sessionId + "/adaptive/answer", token,
+                    Map.of("questionId", question.path("id").asLong(),
+                            "answer", choices[random.nextInt(choices.length)].trim()));
+        }
+    }
+
+    // Queues the submission like a cohort's auto-submit at time-up, then polls the ticket until it is scored
+    private boolean submitAsync(int testId, String token, Map<String, String> answers)
+            throws IOException, InterruptedException {
+        JsonNode ticket = call("submit-async", "POST", "/api/candidate/tests/" + testId + "/submit?async=true", token,
+                Map.of("answers", answers, "autoSubmit", true));
+        if (ticket == null) {
+            return false;
+        }
+        long queued = System.nanoTime();
+        for (int poll = 0; poll < 600; poll++) {
+            Thread.sleep(100);
+            JsonNode status = call("submission", "GET", "/api/candidate/submissions/" + ticket.path("ticket").asLong(),
+                    token, null);
+            String state = status == null ? "FAILED" : status.path("status").asText();
+            if (state.equals("DONE") || state.equals("FAILED")) {
+                report.record("submit-async-scored", System.nanoTime() - queued, state.equals("DONE"));
+                return state.equals("DONE");
+            }
+        }
+        report.record("submit-async-scored", System.nanoTime() - queued, false);
+        return false;
+    }
+
+    private void recruiterLoop(int recruiter, AtomicBoolean done) {
+        try {
+            String token = login(DataSeeder.recruiterName(recruiter));
+            // Each recruiter pulls one full results export while the exam is running
+            call("export", "GET", "/api/recruiter/tests/" + recruiter + "/sessions/export?format=csv&gzip=true",
+                    token, null);
+            // and reviews the bank's near-duplicate clusters once
+            call("questions/duplicates", "GET", "/api/recruiter/questions/duplicates?limit=20", token, null);
+            while (!done.get()) {
+                call("analytics", "GET", "/api/recruiter/analytics", token, null);
+                call("skills", "GET", "/api/recruiter/analytics/skills", token, null);
+                call("skills/distribution", "GET", "/api/recruiter/analytics/skills/Java/distribution",
+                        token, null);
+                call("skills/top", "GET", "/api/recruiter/analytics/skills/Java/top?limit=10", token, null);
+                call("sessions/completed", "GET", "/api/recruiter/sessions/completed", token, null);
+                browseSessions(token);
+                searchQuestions(token);
+            }
+        } catch (Exception e) {
+            report.record("recruiter-aborted", 0, false);
+        }
+    }
+
+    // Pages through the recruiter's submitted sessions the way the dashboard scrolls
+    private void browseSessions(String token) throws IOException, InterruptedException {
+        String cursor = null;
+        for (int page = 0; page < 5; page++) {
+            JsonNode response = call("sessions/search", "GET", "/api/recruiter/sessions/search?completed=true&size=50"
+                    + (cursor == null ? "" : "&cursor=" + cursor), token, null);
+            if (response == null || response.path("nextCursor").isNull()) {
+                return;
+            }
+            cursor = response.path("nextCursor").asText();
+        }
+    }
+
+    // Browses the question bank the way the test builder does: a random draw, a duplicate check, words, then facets
+    // and a few pages
+    private void searchQuestions(String token) throws IOException, InterruptedException {
+        String skill = DataSeeder.SKILLS[ThreadLocalRandom.current().nextInt(DataSeeder.SKILLS.length)];
+        call("questions/search", "GET", "/api/recruiter/questions/search?q=correct+scenar*&size=20", token, null);
+        call("questions/sample", "GET", "/api/recruiter/questions/sample?skill=" + skill.replace(" ", "+")
+                + "&difficulty=HARD&count=20&candidateId=" + (DataSeeder.recruiterId(options.recruiters()) + 1), token, null);
+        // A draft worded like the seeded questions, so the check walks a crowded bucket
+        call("questions/duplicates/check", "POST", "/api/recruiter/questions/duplicates/check", token,
+                Map.of("text", "[" + skill + "] Question: which statement about this hard scenario is correct?",
+                        "options", "true, false"));
+        String query = "/api/recruiter/questions/search?q=statement&skill=" + skill.replace(" ", "+")
+                + "&difficulty=MEDIUM,HARD&size=20";
+        String cursor = null;
+        for (int page = 0; page < 3; page++) {
+            JsonNode response = call("questions/search", "GET", query + (cursor == null ? "" : "&cursor=" + cursor),
+                    token, null);
+            if (response == null || response.path("nextCursor").isNull()) {
+                return;
+            }
+            cursor = response.path("nextCursor").asText();
+        }
+    }
+
+    private String login(String username) throws IOException, InterruptedException {
+        // Like a real client, back off and retry while the password hashing pool sheds load
+        for (int attempt = 0; attempt < 30; attempt++) {
+            JsonNode response = call("login", "POST", "/api/auth/login", null,
+                    Map.of("username", username, "password", DataSeeder.PASSWORD));
+            if (response != null) {
+                return response.path("token").asText();
+            }
+            Thread.sleep(500 + ThreadLocalRandom.current().nextInt(1000));
+        }
+        throw new IllegalStateException("Login failed for " + username);
+    }
+
+    private JsonNode call(String endpoint, String method, String path, String token, Object body)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofMinutes(5))
+                .header("Content-Type", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        request.method(method, body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        long latency = System.nanoTime() - start;
+
+        if (response.statusCode() / 100 != 2) {
+            report.record(endpoint + " [" + response.statusCode() + "]", latency, false);
+            return null;
+        }
+        report.record(endpoint, latency, true);
+        // Exports are only timed, not parsed
+        if (endpoint.equals("export")) {
+            return null;
+        }
+        return objectMapper.readTree(response.body());
+    }
+}
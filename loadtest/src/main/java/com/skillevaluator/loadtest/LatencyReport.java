@@ -0,0 +1,69 @@
+package com.skillevaluator.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Collects per-endpoint latencies and prints throughput and p50/p99/p999.
+ */
+public class LatencyReport {
+
+    private final Map<String, Samples> endpoints = new ConcurrentSkipListMap<>();
+
+    private static final class Samples {
+        private long[] nanos = new long[1024];
+        private int count;
+        private int errors;
+
+        synchronized void add(long latencyNanos, boolean ok) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = latencyNanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(nanos, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        synchronized int errors() {
+            return errors;
+        }
+    }
+
+    public void record(String endpoint, long latencyNanos, boolean ok) {
+        endpoints.computeIfAbsent(endpoint, e -> new Samples()).add(latencyNanos, ok);
+    }
+
+    public void print(long wallNanos) {
+        double wallSeconds = wallNanos / 1e9;
+        System.out.printf("%nWall time: %.1f s%n%n", wallSeconds);
+        System.out.printf("%-22s %9s %7s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        endpoints.forEach((endpoint, samples) -> {
+            long[] sorted = samples.sorted();
+            if (sorted.length == 0) {
+                return;
+            }
+            System.out.printf("%-22s %9d %7d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    endpoint, sorted.length, samples.errors(), sorted.length / wallSeconds,
+                    millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+                    millis(percentile(sorted, 0.999)), millis(sorted[sorted.length - 1]));
+        });
+    }
+
+    static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
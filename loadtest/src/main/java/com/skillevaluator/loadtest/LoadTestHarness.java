@@ -0,0 +1,90 @@
+package com.skillevaluator.loadtest;
+
+import com.skillevaluator.SkillEvaluatorApplication;
+import com.skillevaluator.config.IdSequenceAligner;
+import com.skillevaluator.service.AdaptiveTestEngine;
+import com.skillevaluator.service.QuestionDuplicateIndex;
+import com.skillevaluator.service.QuestionSampler;
+import com.skillevaluator.service.QuestionSearchIndex;
+import com.skillevaluator.service.SkillScoreService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Exam-day load test. Boots the backend in-process against an embedded H2
+ * database (or a local PostgreSQL given with {@code --db-url}), seeds a
+ * synthetic dataset, then runs concurrent candidates and recruiters against
+ * the real HTTP endpoints with Gemini stubbed out.
+ *
+ * <pre>
+ * java -jar target/skill-evaluator-loadtest-1.0.0.jar --candidates=20000 --sessions=200000 \
+ *     --concurrent-candidates=500
+ * </pre>
+ */
+public class LoadTestHarness {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SkillEvaluatorApplication.class)
+                .run(springArguments(options));
+        try (ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (options.seed()) {
+                new DataSeeder(context.getBean(JdbcTemplate.class), options).seed();
+                context.getBean(IdSequenceAligner.class).align();
+                // Seeded through JDBC after startup, so the in-memory question views have not seen the questions
+                context.getBean(QuestionSearchIndex.class).rebuild();
+                context.getBean(QuestionSampler.class).rebuild();
+                context.getBean(AdaptiveTestEngine.class).rebuild();
+                context.getBean(QuestionDuplicateIndex.class).rebuild();
+                // Seeded sessions only carry skillBreakdown, like sessions scored before session_skill_scores
+                long backfillStart = System.nanoTime();
+                SkillScoreService.BackfillResult backfill = context.getBean(SkillScoreService.class).backfill();
+                System.out.printf("Backfilled %d skill scores for %d sessions in %d ms%n", backfill.rows(),
+                        backfill.sessions(), (System.nanoTime() - backfillStart) / 1_000_000);
+            }
+            new StartPathQueryCheck(context).verify(DataSeeder.candidateName(options.candidates()), 1);
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            System.out.printf("Running %d candidates x %d exams, %d recruiters against port %d (%s threads)%n",
+                    options.concurrentCandidates(), options.examsPerCandidate(), options.concurrentRecruiters(),
+                    port, options.virtualThreads() ? "virtual" : "platform");
+
+            new ExamDaySimulation("http://localhost:" + port, options, clientExecutor).run();
+        } finally {
+            context.close();
+        }
+    }
+
+    // Passed as command line arguments so they override the backend's application.properties
+    static String[] springArguments(LoadTestOptions options) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--management.server.port=-1",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.jpa.show-sql=false",
+                "--spring.threads.virtual.enabled=" + options.virtualThreads(),
+                "--spring.datasource.url=" + options.dbUrl(),
+                "--spring.datasource.username=" + options.dbUser(),
+                "--spring.datasource.password=" + options.dbPassword(),
+                "--gemini.api.key=offline"));
+
+        if (options.seed()) {
+            // Seeding expects an empty schema
+            args.add("--spring.jpa.hibernate.ddl-auto=create");
+        }
+        if (!options.isPostgres()) {
+            args.add("--spring.datasource.driver-class-name=org.h2.Driver");
+            args.add("--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+        }
+        return args.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,85 @@
+package com.skillevaluator.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line options, given as {@code --name=value}.
+ */
+public record LoadTestOptions(
+        // Synthetic dataset
+        boolean seed,
+        int recruiters,
+        int candidates,
+        int tests,
+        int questions,
+        int questionsPerTest,
+        int sessions,
+        // Simulation
+        int concurrentCandidates,
+        int examsPerCandidate,
+        int concurrentRecruiters,
+        // Database (an embedded H2 file database unless a PostgreSQL URL is given)
+        String dbUrl,
+        String dbUser,
+        String dbPassword,
+        boolean virtualThreads) {
+
+    static final String DEFAULT_DB_URL = "jdbc:h2:file:./target/loadtest-db;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+
+    private static final Set<String> KNOWN = Set.of(
+            "seed", "recruiters", "candidates", "tests", "questions", "questions-per-test", "sessions",
+            "concurrent-candidates", "exams-per-candidate", "concurrent-recruiters",
+            "db-url", "db-user", "db-password", "virtual-threads");
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                bool(values, "seed", true),
+                integer(values, "recruiters", 50),
+                integer(values, "candidates", 100_000),
+                integer(values, "tests", 2_000),
+                integer(values, "questions", 200_000),
+                integer(values, "questions-per-test", 25),
+                integer(values, "sessions", 2_000_000),
+                integer(values, "concurrent-candidates", 500),
+                integer(values, "exams-per-candidate", 1),
+                integer(values, "concurrent-recruiters", 10),
+                values.getOrDefault("db-url", DEFAULT_DB_URL),
+                values.getOrDefault("db-user", "sa"),
+                values.getOrDefault("db-password", ""),
+                bool(values, "virtual-threads", false));
+
+        values.keySet().removeAll(KNOWN);
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        if (options.concurrentCandidates() > options.candidates()) {
+            throw new IllegalArgumentException("concurrent-candidates cannot exceed candidates");
+        }
+        return options;
+    }
+
+    public boolean isPostgres() {
+        return dbUrl.startsWith("jdbc:postgresql:");
+    }
+
+    private static int integer(Map<String, String> values, String name, int defaultValue) {
+        String value = values.get(name);
+        return value != null ? Integer.parseInt(value.replace("_", "")) : defaultValue;
+    }
+
+    private static boolean bool(Map<String, String> values, String name, boolean defaultValue) {
+        String value = values.get(name);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+}
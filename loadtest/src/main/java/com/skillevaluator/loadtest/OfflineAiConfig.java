@@ -0,0 +1,46 @@
+package com.skillevaluator.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillevaluator.model.Difficulty;
+import com.skillevaluator.model.Question;
+import com.skillevaluator.model.QuestionType;
+import com.skillevaluator.service.AiService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the Gemini-backed AiService so the harness never leaves the machine.
+ */
+@Configuration
+public class OfflineAiConfig {
+
+    @Bean
+    @Primary
+    public AiService offlineAiService(RestTemplate restTemplate, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        return new AiService(restTemplate, objectMapper, meterRegistry) {
+            @Override
+            public List<Question> generateQuestions(String skill, String difficulty, int count) {
+                List<Question> questions = new ArrayList<>();
+                for (int i = 1; i <= count; i++) {
+                    Question q = new Question();
+                    q.setSkill(skill);
+                    q.setDifficulty(Difficulty.valueOf(difficulty.toUpperCase()));
+                    q.setType(QuestionType.MCQ);
+                    q.setText("[OFFLINE] " + skill + " question " + i);
+                    q.setOptions("Option A, Option B, Option C, Option D");
+                    q.setCorrectAnswer("Option A");
+                    q.setPoints(10);
+                    questions.add(q);
+                }
+                return questions;
+            }
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package com.skillevaluator.loadtest;
+
+import com.skillevaluator.model.User;
+import com.skillevaluator.repository.UserRepository;
+import com.skillevaluator.service.ExamSnapshot;
+import com.skillevaluator.service.ExamSnapshotCache;
+import com.skillevaluator.service.TestService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Guards the exam start path against N+1 regressions by counting the JDBC
+ * statements Hibernate prepares to build a test's snapshot, start a session
+ * and resume it. The harness refuses to run if any exceeds its budget.
+ */
+public class StartPathQueryCheck {
+
+    // Test with creator and questions
+    static final long SNAPSHOT_BUDGET = 1;
+    // Open-session lookup, session insert, and an id sequence fetch every 50 sessions
+    static final long START_BUDGET = 3;
+    // Open-session lookup
+    static final long RESUME_BUDGET = 1;
+
+    private final TestService testService;
+    private final ExamSnapshotCache examSnapshotCache;
+    private final UserRepository userRepository;
+    private final Statistics statistics;
+
+    public StartPathQueryCheck(ConfigurableApplicationContext context) {
+        this.testService = context.getBean(TestService.class);
+        this.examSnapshotCache = context.getBean(ExamSnapshotCache.class);
+        this.userRepository = context.getBean(UserRepository.class);
+        this.statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public void verify(String candidateUsername, long testId) {
+        if (!statistics.isStatisticsEnabled()) {
+            System.out.println("Skipping start path query check: Hibernate statistics are disabled");
+            return;
+        }
+        User candidate = userRepository.findByUsername(candidateUsername)
+                .orElseThrow(() -> new IllegalStateException("Unknown candidate " + candidateUsername));
+
+        examSnapshotCache.evictTest(testId);
+        statistics.clear();
+        ExamSnapshot snapshot = examSnapshotCache.get(testId);
+        long loaded = statistics.getPrepareStatementCount();
+        if (snapshot.getQuestionCount() == 0) {
+            throw new IllegalStateException("Test " + testId + " has no questions");
+        }
+
+        long started = countStatements(snapshot, candidate);
+        long resumed = countStatements(snapshot, candidate);
+        System.out.printf("Start path: %d statements to build the snapshot, %d to start, %d to resume%n",
+                loaded, started, resumed);
+
+        if (loaded > SNAPSHOT_BUDGET || started > START_BUDGET || resumed > RESUME_BUDGET) {
+            throw new IllegalStateException(String.format(
+                    "Start path issued %d/%d/%d statements (snapshot/start/resume), budget is %d/%d/%d",
+                    loaded, started, resumed, SNAPSHOT_BUDGET, START_BUDGET, RESUME_BUDGET));
+        }
+    }
+
+    private long countStatements(ExamSnapshot snapshot, User candidate) {
+        statistics.clear();
+        testService.startTestSession(snapshot, candidate);
+        return statistics.getPrepareStatementCount();
+    }
+}